@@ -0,0 +1,140 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Measures the bytes allocated per operation on the spot allocation path,
+ * comparing the original defensive Set copy and per-call preference list
+ * with the precomputed compatibility bitmask and preference arrays.
+ * Uses the HotSpot per-thread allocation counter.
+ */
+public class AllocationRateBenchmark {
+    private static final int FLOORS = 4;
+    private static final int SPOTS_PER_FLOOR = 500;
+    private static final int WARMUP_OPERATIONS = 2_000_000;
+    private static final int MEASURED_OPERATIONS = 1_000_000;
+    private static final Set<SpotType> CAR_SPOTS = new HashSet<>(
+            EnumSet.of(SpotType.REGULAR, SpotType.LARGE, SpotType.HANDICAPPED, SpotType.ELECTRIC));
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static volatile Object objectSink;
+    private static volatile long longSink;
+
+    public static void main(String[] args) {
+        System.out.println("=== ALLOCATION RATE BENCHMARK ===");
+        System.out.println(String.format("%d operations per measurement, %d floors x %d spots%n",
+                MEASURED_OPERATIONS, FLOORS, SPOTS_PER_FLOOR));
+
+        Vehicle[] vehicles = {
+                new Vehicle("ALLOC-M", VehicleType.MOTORCYCLE, "White", "Bench"),
+                new Vehicle("ALLOC-C", VehicleType.CAR, "White", "Bench"),
+                new Vehicle("ALLOC-V", VehicleType.VAN, "White", "Bench"),
+                new Vehicle("ALLOC-T", VehicleType.TRUCK, "White", "Bench") };
+        SpotType[] spotTypes = SpotType.values();
+
+        ParkingLot parkingLot = createParkingLot();
+        CompactSpotStore store = createCompactStore();
+
+        System.out.println(String.format("%-40s %12s %12s", "Operation", "bytes/op", "ns/op"));
+        measure("Compatibility check (Set copy)", i -> {
+            longSink += legacyCanFit(spotTypes[i % spotTypes.length]) ? 1 : 0;
+        });
+        measure("Compatibility check (bitmask)", i -> {
+            longSink += vehicles[i & 3].canFitInSpot(spotTypes[i % spotTypes.length]) ? 1 : 0;
+        });
+        measure("Preference order (ArrayList per call)", i -> {
+            for (SpotType spotType : legacyPreferredSpotTypes(vehicles[i & 3].getType())) {
+                longSink += spotType.ordinal();
+            }
+        });
+        measure("Preference order (shared array)", i -> {
+            for (SpotType spotType : vehicles[i & 3].getPreferredSpotTypes()) {
+                longSink += spotType.ordinal();
+            }
+        });
+        measure("Floor.findAvailableSpot", i -> {
+            objectSink = parkingLot.getFloor(i % FLOORS).findAvailableSpot(vehicles[i & 3]);
+        });
+        measure("CompactSpotStore park + remove", i -> {
+            int index = store.parkVehicle(vehicles[i & 3]);
+            if (index >= 0) {
+                store.removeVehicle(index);
+            }
+        });
+    }
+
+    private interface Operation {
+        void run(int i);
+    }
+
+    private static void measure(String name, Operation operation) {
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            operation.run(i);
+        }
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            operation.run(i);
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.println(String.format("%-40s %12.1f %12.1f", name,
+                (double) bytes / MEASURED_OPERATIONS, (double) nanos / MEASURED_OPERATIONS));
+    }
+
+    /**
+     * Vehicle.canFitInSpot as originally written: a defensive HashSet copy of
+     * the compatible types on every call
+     */
+    private static boolean legacyCanFit(SpotType spotType) {
+        return new HashSet<>(CAR_SPOTS).contains(spotType);
+    }
+
+    /**
+     * Floor.getPreferredSpotTypes as originally written
+     */
+    private static List<SpotType> legacyPreferredSpotTypes(VehicleType vehicleType) {
+        List<SpotType> preferred = new ArrayList<>();
+        switch (vehicleType) {
+            case MOTORCYCLE:
+                preferred.addAll(Arrays.asList(SpotType.COMPACT, SpotType.REGULAR,
+                        SpotType.ELECTRIC, SpotType.HANDICAPPED, SpotType.LARGE));
+                break;
+            case CAR:
+                preferred.addAll(Arrays.asList(SpotType.REGULAR, SpotType.ELECTRIC,
+                        SpotType.HANDICAPPED, SpotType.LARGE));
+                break;
+            case VAN:
+                preferred.addAll(Arrays.asList(SpotType.LARGE, SpotType.REGULAR));
+                break;
+            case TRUCK:
+                preferred.add(SpotType.LARGE);
+                break;
+        }
+        return preferred;
+    }
+
+    private static ParkingLot createParkingLot() {
+        ParkingLot parkingLot = new ParkingLot("PL-ALLOC", "Allocation Bench", "Bench", FLOORS);
+        SpotType[] spotTypes = SpotType.values();
+        for (int floor = 0; floor < FLOORS; floor++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                parkingLot.addParkingSpot(floor, new ParkingSpot(String.format("F%d-%03d", floor, i),
+                        spotTypes[i % spotTypes.length], floor));
+            }
+        }
+        return parkingLot;
+    }
+
+    private static CompactSpotStore createCompactStore() {
+        CompactSpotStore store = new CompactSpotStore("A", FLOORS, FLOORS * SPOTS_PER_FLOOR);
+        SpotType[] spotTypes = SpotType.values();
+        for (int floor = 0; floor < FLOORS; floor++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                store.addSpot(floor, spotTypes[i % spotTypes.length]);
+            }
+        }
+        return store;
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.*;
+
+/**
+ * Simulation comparing spot allocation strategies on a busy lot: random
+ * arrivals through four gates and random departures at around 80% occupancy.
+ * Reports the mean allocation latency, how far the assigned spot is from the
+ * entry gate and how evenly the floors are loaded.
+ */
+public class AllocationStrategyBenchmark {
+    private static final int FLOORS = 6;
+    private static final int SPOTS_PER_FLOOR = 400;
+    private static final double RAMP_DISTANCE = 150.0; // Driving distance per floor, in spot widths
+    private static final double TARGET_OCCUPANCY = 0.8;
+    private static final int EVENTS = 200_000;
+    private static final String[] GATE_IDS = { "GATE-N", "GATE-E", "GATE-S", "GATE-W" };
+    private static final int[] GATE_POSITIONS = { 0, 100, 200, 300 };
+
+    public static void main(String[] args) {
+        System.out.println("=== ALLOCATION STRATEGY BENCHMARK ===");
+        System.out.println(String.format("%d floors x %d spots, %d gates, %d events at %.0f%% occupancy%n", FLOORS,
+                SPOTS_PER_FLOOR, GATE_IDS.length, EVENTS, TARGET_OCCUPANCY * 100));
+        System.out.println(String.format("%-22s %14s %14s %20s %16s", "Strategy", "Alloc ns/veh", "Avg distance",
+                "Floor occupancy %", "Ground floor %"));
+
+        // The first round only warms up the JIT
+        for (boolean report : new boolean[] { false, true }) {
+            simulate("Lowest floor first", new LowestFloorFirstStrategy(), report);
+            simulate("Nearest to gate", new NearestToGateStrategy(AllocationStrategyBenchmark::distance), report);
+            simulate("Spread across floors", new SpreadAcrossFloorsStrategy(), report);
+        }
+    }
+
+    private static void simulate(String name, SpotAllocationStrategy strategy, boolean report) {
+        ParkingLot parkingLot = createParkingLot();
+        parkingLot.setAllocationStrategy(strategy);
+        Random random = new Random(42);
+        List<String> parkedPlates = new ArrayList<>();
+        int capacity = FLOORS * SPOTS_PER_FLOOR;
+        VehicleType[] mix = { VehicleType.CAR, VehicleType.CAR, VehicleType.CAR, VehicleType.CAR,
+                VehicleType.MOTORCYCLE, VehicleType.VAN, VehicleType.TRUCK };
+
+        long allocations = 0;
+        long allocationNanos = 0;
+        double totalDistance = 0;
+        long groundFloorAllocations = 0;
+        int plateCounter = 0;
+
+        for (int event = 0; event < EVENTS; event++) {
+            boolean arrive = parkedPlates.size() < capacity * TARGET_OCCUPANCY ? random.nextInt(4) != 0
+                    : random.nextInt(4) == 0;
+            if (arrive || parkedPlates.isEmpty()) {
+                int gate = random.nextInt(GATE_IDS.length);
+                Vehicle vehicle = new Vehicle(String.format("SIM-%07d", plateCounter++),
+                        mix[random.nextInt(mix.length)], "White", "Sim");
+                long start = System.nanoTime();
+                Ticket ticket;
+                try {
+                    ticket = parkingLot.parkVehicle(vehicle, GATE_IDS[gate]);
+                } catch (IllegalStateException e) {
+                    continue; // No compatible spot free
+                }
+                allocationNanos += System.nanoTime() - start;
+                allocations++;
+
+                ParkingSpot spot = ticket.getAssignedSpot();
+                totalDistance += Math.abs(position(spot) - GATE_POSITIONS[gate]) + spot.getFloor() * RAMP_DISTANCE;
+                if (spot.getFloor() == 0) {
+                    groundFloorAllocations++;
+                }
+                parkedPlates.add(vehicle.getLicensePlate());
+            } else {
+                int index = random.nextInt(parkedPlates.size());
+                String plate = parkedPlates.get(index);
+                parkedPlates.set(index, parkedPlates.get(parkedPlates.size() - 1));
+                parkedPlates.remove(parkedPlates.size() - 1);
+                parkingLot.removeVehicle(plate, GATE_IDS[random.nextInt(GATE_IDS.length)]);
+            }
+        }
+
+        if (report) {
+            StringBuilder floorOccupancy = new StringBuilder();
+            for (int floorNum = 0; floorNum < FLOORS; floorNum++) {
+                floorOccupancy.append(floorNum > 0 ? "/" : "")
+                        .append(Math.round(parkingLot.getFloor(floorNum).getOccupancyRate() * 100));
+            }
+            System.out.println(String.format("%-22s %14.0f %14.1f %20s %15.1f%%", name,
+                    (double) allocationNanos / allocations, totalDistance / allocations, floorOccupancy,
+                    100.0 * groundFloorAllocations / allocations));
+        }
+    }
+
+    /**
+     * Gates sit along the ground floor; reaching an upper floor costs a ramp
+     * drive before walking along the row
+     */
+    private static double distance(EntryExit gate, ParkingSpot spot) {
+        int gatePosition = GATE_POSITIONS[Arrays.asList(GATE_IDS).indexOf(gate.getGateId())];
+        return Math.abs(position(spot) - gatePosition) + spot.getFloor() * RAMP_DISTANCE;
+    }
+
+    /**
+     * Position of a spot along its floor, taken from its ID (F<floor>-<index>)
+     */
+    private static int position(ParkingSpot spot) {
+        String spotId = spot.getSpotId();
+        return Integer.parseInt(spotId.substring(spotId.indexOf('-') + 1));
+    }
+
+    private static ParkingLot createParkingLot() {
+        ParkingLot parkingLot = new ParkingLot("PL-SIM", "Simulation Deck", "1 Model Rd", FLOORS);
+        for (String gateId : GATE_IDS) {
+            parkingLot.addEntryExitGate(new EntryExit(gateId, EntryExitType.BOTH));
+        }
+
+        SpotType[] layout = { SpotType.COMPACT, SpotType.REGULAR, SpotType.REGULAR, SpotType.REGULAR,
+                SpotType.REGULAR, SpotType.LARGE, SpotType.LARGE, SpotType.ELECTRIC };
+        for (int floorNum = 0; floorNum < FLOORS; floorNum++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                parkingLot.addParkingSpot(floorNum, new ParkingSpot(String.format("F%d-%04d", floorNum, i),
+                        layout[i % layout.length], floorNum));
+            }
+        }
+        return parkingLot;
+    }
+}
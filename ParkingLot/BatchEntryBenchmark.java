@@ -0,0 +1,99 @@
+import java.util.*;
+
+/**
+ * Benchmark comparing batch admission (ParkingLot.parkVehicles) with calling
+ * parkVehicle once per vehicle, on a lot whose lower floors are already full
+ */
+public class BatchEntryBenchmark {
+    private static final int FLOORS = 6;
+    private static final int SPOTS_PER_FLOOR = 1000;
+    private static final int FULL_FLOORS = 4;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+    private static final String GATE_ID = "ENTRY-1";
+    private static final String EXIT_GATE_ID = "EXIT-1";
+
+    public static void main(String[] args) {
+        System.out.println("=== BATCH ENTRY BENCHMARK ===");
+        System.out.println(String.format("%d floors x %d spots, lowest %d floors full%n", FLOORS, SPOTS_PER_FLOOR,
+                FULL_FLOORS));
+        System.out.println(String.format("%-8s %18s %18s %10s", "Batch", "Per-vehicle ns/veh", "Batch ns/veh",
+                "Speedup"));
+
+        // The first round only warms up the JIT across every batch size
+        for (boolean report : new boolean[] { false, true }) {
+            for (int batchSize : new int[] { 10, 50, 100, 500, 1000 }) {
+                ParkingLot parkingLot = createParkingLot();
+                List<Vehicle> vehicles = createVehicles("B" + batchSize, batchSize);
+
+                double loopNanos = measure(parkingLot, vehicles, false);
+                double batchNanos = measure(parkingLot, vehicles, true);
+
+                if (report) {
+                    System.out.println(String.format("%-8d %18.0f %18.0f %9.2fx", batchSize, loopNanos / batchSize,
+                            batchNanos / batchSize, loopNanos / batchNanos));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the mean time in nanoseconds to admit the whole batch
+     */
+    private static double measure(ParkingLot parkingLot, List<Vehicle> vehicles, boolean useBatchApi) {
+        long totalNanos = 0;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASURED_ITERATIONS; iteration++) {
+            long start = System.nanoTime();
+            if (useBatchApi) {
+                parkingLot.parkVehicles(vehicles, GATE_ID);
+            } else {
+                for (Vehicle vehicle : vehicles) {
+                    parkingLot.parkVehicle(vehicle, GATE_ID);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (iteration >= WARMUP_ITERATIONS) {
+                totalNanos += elapsed;
+            }
+
+            for (Vehicle vehicle : vehicles) {
+                parkingLot.removeVehicle(vehicle.getLicensePlate(), EXIT_GATE_ID);
+            }
+        }
+        return (double) totalNanos / MEASURED_ITERATIONS;
+    }
+
+    private static ParkingLot createParkingLot() {
+        ParkingLot parkingLot = new ParkingLot("PL-BENCH", "Event Arena", "1 Stadium Way", FLOORS);
+        parkingLot.addEntryExitGate(new EntryExit(GATE_ID, EntryExitType.ENTRY));
+        parkingLot.addEntryExitGate(new EntryExit(EXIT_GATE_ID, EntryExitType.EXIT));
+
+        SpotType[] layout = { SpotType.COMPACT, SpotType.REGULAR, SpotType.REGULAR, SpotType.REGULAR,
+                SpotType.REGULAR, SpotType.REGULAR, SpotType.REGULAR, SpotType.LARGE, SpotType.LARGE,
+                SpotType.ELECTRIC };
+        for (int floorNum = 0; floorNum < FLOORS; floorNum++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                parkingLot.addParkingSpot(floorNum, new ParkingSpot(String.format("F%d-%04d", floorNum, i),
+                        layout[i % layout.length], floorNum));
+            }
+        }
+
+        // Fill the lower floors with motorcycles, which fit every spot type
+        List<Vehicle> fillers = new ArrayList<>();
+        for (int i = 0; i < FULL_FLOORS * SPOTS_PER_FLOOR; i++) {
+            fillers.add(new Vehicle(String.format("FILL-%05d", i), VehicleType.MOTORCYCLE, "Grey", "Filler"));
+        }
+        parkingLot.parkVehicles(fillers, GATE_ID);
+        return parkingLot;
+    }
+
+    private static List<Vehicle> createVehicles(String prefix, int count) {
+        List<Vehicle> vehicles = new ArrayList<>(count);
+        VehicleType[] mix = { VehicleType.CAR, VehicleType.CAR, VehicleType.CAR, VehicleType.MOTORCYCLE,
+                VehicleType.VAN, VehicleType.TRUCK };
+        for (int i = 0; i < count; i++) {
+            vehicles.add(new Vehicle(String.format("%s-%04d", prefix, i), mix[i % mix.length], "White", "Convoy"));
+        }
+        return vehicles;
+    }
+}
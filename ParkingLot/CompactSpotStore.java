@@ -0,0 +1,277 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays spot store for very large facilities (tens of thousands of
+ * spots). A spot is an int index into parallel primitive arrays instead of an
+ * object with its own lock, listener and boxed map entry; spot IDs are
+ * derived from the index rather than stored. Free spots sit in int stacks per
+ * (floor, spot type). All mutators share one lock.
+ */
+public class CompactSpotStore {
+    private static final byte IN_FREE_STACK = 1;
+    private static final int SPOT_TYPE_COUNT = SpotType.values().length;
+    private static final SpotType[] SPOT_TYPES = SpotType.values();
+    private static final SpotStatus[] SPOT_STATUSES = SpotStatus.values();
+
+    private final String idPrefix;
+    private final int totalFloors;
+    private byte[] types;
+    private byte[] statuses;
+    private byte[] flags;
+    private short[] floors;
+    private long[] occupiedSinceMillis;
+    private Vehicle[] parkedVehicles;
+    private int size;
+
+    private final int[][] freeStacks; // Indexed by floor * SPOT_TYPE_COUNT + type
+    private final int[] freeStackSizes;
+    private final int[] availableCounts;
+
+    public CompactSpotStore(String idPrefix, int totalFloors, int initialCapacity) {
+        if (totalFloors <= 0 || totalFloors > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Floor count must be between 1 and " + Short.MAX_VALUE);
+        }
+        this.idPrefix = idPrefix;
+        this.totalFloors = totalFloors;
+        int capacity = Math.max(16, initialCapacity);
+        this.types = new byte[capacity];
+        this.statuses = new byte[capacity];
+        this.flags = new byte[capacity];
+        this.floors = new short[capacity];
+        this.occupiedSinceMillis = new long[capacity];
+        this.parkedVehicles = new Vehicle[capacity];
+        this.size = 0;
+
+        int buckets = totalFloors * SPOT_TYPE_COUNT;
+        this.freeStacks = new int[buckets][];
+        this.freeStackSizes = new int[buckets];
+        this.availableCounts = new int[buckets];
+        for (int i = 0; i < buckets; i++) {
+            freeStacks[i] = new int[16];
+        }
+    }
+
+    /**
+     * Adds an available spot and returns its index
+     */
+    public synchronized int addSpot(int floor, SpotType spotType) {
+        if (floor < 0 || floor >= totalFloors) {
+            throw new IllegalArgumentException("Floor " + floor + " does not exist");
+        }
+        if (size == types.length) {
+            grow();
+        }
+        int index = size++;
+        types[index] = (byte) spotType.ordinal();
+        statuses[index] = (byte) SpotStatus.AVAILABLE.ordinal();
+        floors[index] = (short) floor;
+        availableCounts[bucket(floor, spotType.ordinal())]++;
+        pushFree(index);
+        return index;
+    }
+
+    /**
+     * Parks a vehicle in the first suitable free spot, trying floors from the
+     * ground floor up and spot types in the vehicle's order of preference.
+     * Returns the spot index, or -1 if nothing suitable is free.
+     */
+    public synchronized int parkVehicle(Vehicle vehicle) {
+        SpotType[] preferredSpotTypes = vehicle.getPreferredSpotTypes();
+        for (int floor = 0; floor < totalFloors; floor++) {
+            for (SpotType spotType : preferredSpotTypes) {
+                int index = popFree(bucket(floor, spotType.ordinal()));
+                if (index >= 0) {
+                    parkedVehicles[index] = vehicle;
+                    occupiedSinceMillis[index] = TariffEngine.currentEpochMillis();
+                    setStatus(index, SpotStatus.OCCUPIED);
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Frees an occupied spot and returns the vehicle that was parked there
+     */
+    public synchronized Vehicle removeVehicle(int index) {
+        checkIndex(index);
+        if (statuses[index] != SpotStatus.OCCUPIED.ordinal()) {
+            return null;
+        }
+        Vehicle vehicle = parkedVehicles[index];
+        parkedVehicles[index] = null;
+        occupiedSinceMillis[index] = 0;
+        setStatus(index, SpotStatus.AVAILABLE);
+        return vehicle;
+    }
+
+    public synchronized void reserve(int index) {
+        checkIndex(index);
+        if (statuses[index] == SpotStatus.AVAILABLE.ordinal()) {
+            setStatus(index, SpotStatus.RESERVED);
+        }
+    }
+
+    public synchronized void markOutOfOrder(int index) {
+        checkIndex(index);
+        if (statuses[index] == SpotStatus.AVAILABLE.ordinal()) {
+            setStatus(index, SpotStatus.OUT_OF_ORDER);
+        }
+    }
+
+    public synchronized void markAvailable(int index) {
+        checkIndex(index);
+        if (statuses[index] == SpotStatus.OUT_OF_ORDER.ordinal()
+                || statuses[index] == SpotStatus.RESERVED.ordinal()) {
+            setStatus(index, SpotStatus.AVAILABLE);
+        }
+    }
+
+    /**
+     * Builds a detached ParkingSpot copy of a spot, for code that works with
+     * the object model (display, tickets)
+     */
+    public synchronized ParkingSpot toParkingSpot(int index) {
+        checkIndex(index);
+        ParkingSpot spot = new ParkingSpot(getSpotId(index), getSpotType(index), getFloor(index));
+        switch (getStatus(index)) {
+            case OCCUPIED:
+                spot.parkVehicle(parkedVehicles[index],
+                        LocalDateTime.ofEpochSecond(Math.floorDiv(occupiedSinceMillis[index], 1000L),
+                                (int) Math.floorMod(occupiedSinceMillis[index], 1000L) * 1_000_000,
+                                ZoneOffset.UTC));
+                break;
+            case RESERVED:
+                spot.reserve();
+                break;
+            case OUT_OF_ORDER:
+                spot.markOutOfOrder();
+                break;
+            default:
+                break;
+        }
+        return spot;
+    }
+
+    // Getters
+    public String getSpotId(int index) {
+        return idPrefix + index;
+    }
+
+    public synchronized SpotType getSpotType(int index) {
+        checkIndex(index);
+        return SPOT_TYPES[types[index]];
+    }
+
+    public synchronized SpotStatus getStatus(int index) {
+        checkIndex(index);
+        return SPOT_STATUSES[statuses[index]];
+    }
+
+    public synchronized int getFloor(int index) {
+        checkIndex(index);
+        return floors[index];
+    }
+
+    public synchronized Vehicle getParkedVehicle(int index) {
+        checkIndex(index);
+        return parkedVehicles[index];
+    }
+
+    /**
+     * Local time the spot was occupied since, as epoch milliseconds on the
+     * TariffEngine.toEpochMillis scale, or 0 if it is not occupied
+     */
+    public synchronized long getOccupiedSinceMillis(int index) {
+        checkIndex(index);
+        return occupiedSinceMillis[index];
+    }
+
+    public synchronized int getAvailableSpotCount(int floor, SpotType spotType) {
+        return availableCounts[bucket(floor, spotType.ordinal())];
+    }
+
+    public synchronized int getAvailableSpotCount() {
+        int total = 0;
+        for (int count : availableCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getTotalFloors() {
+        return totalFloors;
+    }
+
+    private void setStatus(int index, SpotStatus newStatus) {
+        int bucket = bucket(floors[index], types[index]);
+        if (statuses[index] == SpotStatus.AVAILABLE.ordinal()) {
+            availableCounts[bucket]--;
+        }
+        statuses[index] = (byte) newStatus.ordinal();
+        if (newStatus == SpotStatus.AVAILABLE) {
+            availableCounts[bucket]++;
+            pushFree(index);
+        }
+    }
+
+    /**
+     * Pushes a spot onto its free stack unless it is already there (a spot
+     * reserved and released again may still sit in the stack)
+     */
+    private void pushFree(int index) {
+        if ((flags[index] & IN_FREE_STACK) != 0) {
+            return;
+        }
+        int bucket = bucket(floors[index], types[index]);
+        int[] stack = freeStacks[bucket];
+        if (freeStackSizes[bucket] == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+            freeStacks[bucket] = stack;
+        }
+        stack[freeStackSizes[bucket]++] = index;
+        flags[index] |= IN_FREE_STACK;
+    }
+
+    /**
+     * Pops the next spot that is still available, discarding stale entries
+     */
+    private int popFree(int bucket) {
+        int[] stack = freeStacks[bucket];
+        while (freeStackSizes[bucket] > 0) {
+            int index = stack[--freeStackSizes[bucket]];
+            flags[index] &= ~IN_FREE_STACK;
+            if (statuses[index] == SpotStatus.AVAILABLE.ordinal()) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        floors = Arrays.copyOf(floors, capacity);
+        occupiedSinceMillis = Arrays.copyOf(occupiedSinceMillis, capacity);
+        parkedVehicles = Arrays.copyOf(parkedVehicles, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Spot index " + index + " does not exist");
+        }
+    }
+
+    private static int bucket(int floor, int spotTypeOrdinal) {
+        return floor * SPOT_TYPE_COUNT + spotTypeOrdinal;
+    }
+}
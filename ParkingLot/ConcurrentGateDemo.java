@@ -0,0 +1,161 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress demo that drives a ParkingLot from many gate threads at once and
+ * checks that no spot is ever double-booked and no ticket ID is issued twice
+ */
+public class ConcurrentGateDemo {
+    private static final int FLOORS = 4;
+    private static final int SPOTS_PER_FLOOR = 500;
+    private static final int GATES = 12;
+    private static final int VEHICLES_PER_GATE = 100;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== CONCURRENT GATE STRESS DEMO ===\n");
+
+        boolean allPassed = demonstrateSamePlateRace();
+        System.out.println();
+
+        System.out.println(String.format("%-8s %12s %14s %14s %10s", "Gates", "Operations", "Ops/sec",
+                "Double-booked", "Dup IDs"));
+        for (int gateThreads : new int[] { 1, 2, 4, 8, GATES }) {
+            allPassed &= runStress(gateThreads);
+        }
+
+        System.out.println();
+        System.out.println(allPassed ? "✓ No double allocations or duplicate ticket IDs"
+                : "✗ Concurrency violations detected");
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Every gate tries to park the same vehicle at the same instant; exactly one
+     * may succeed
+     */
+    private static boolean demonstrateSamePlateRace() throws Exception {
+        ParkingLot parkingLot = createParkingLot();
+        Vehicle vehicle = new Vehicle("RACE-01", VehicleType.CAR, "Grey", "Race Tester");
+        ExecutorService executor = Executors.newFixedThreadPool(GATES);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int gate = 0; gate < GATES; gate++) {
+            String gateId = gateId(gate);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    parkingLot.parkVehicle(vehicle, gateId);
+                    successes.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    // Expected for every gate but one
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int occupied = parkingLot.getFloor(0).getOccupiedSpotCount();
+        boolean passed = successes.get() == 1 && occupied == 1;
+        System.out.println(String.format("%s Same-plate race across %d gates: %d ticket(s), %d spot(s) occupied",
+                passed ? "✓" : "✗", GATES, successes.get(), occupied));
+        return passed;
+    }
+
+    /**
+     * Each gate thread repeatedly parks a wave of its own vehicles and then
+     * exits them, while a shared registry detects double bookings
+     */
+    private static boolean runStress(int gateThreads) throws Exception {
+        ParkingLot parkingLot = createParkingLot();
+        Map<String, String> occupiedSpots = new ConcurrentHashMap<>();
+        Set<String> issuedTicketIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger doubleBookings = new AtomicInteger();
+        AtomicInteger duplicateTicketIds = new AtomicInteger();
+        AtomicInteger operations = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(gateThreads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int gate = 0; gate < gateThreads; gate++) {
+            String gateId = gateId(gate);
+            List<Vehicle> vehicles = new ArrayList<>();
+            for (int i = 0; i < VEHICLES_PER_GATE; i++) {
+                VehicleType type = VehicleType.values()[i % VehicleType.values().length];
+                vehicles.add(new Vehicle(String.format("G%02d-%04d", gate, i), type, "White", gateId));
+            }
+
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (Vehicle vehicle : vehicles) {
+                        Ticket ticket = parkingLot.parkVehicle(vehicle, gateId);
+                        ParkingSpot spot = ticket.getAssignedSpot();
+                        if (occupiedSpots.putIfAbsent(spot.getSpotId(), vehicle.getLicensePlate()) != null
+                                || spot.getParkedVehicle() != vehicle) {
+                            doubleBookings.incrementAndGet();
+                        }
+                        if (!issuedTicketIds.add(ticket.getTicketId())) {
+                            duplicateTicketIds.incrementAndGet();
+                        }
+                        operations.incrementAndGet();
+                    }
+                    for (Vehicle vehicle : vehicles) {
+                        ParkingSpot spot = parkingLot.findVehicleLocation(vehicle.getLicensePlate());
+                        occupiedSpots.remove(spot.getSpotId());
+                        parkingLot.removeVehicle(vehicle.getLicensePlate(), gateId);
+                        operations.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        executor.shutdown();
+
+        double opsPerSecond = operations.get() / (elapsedNanos / 1_000_000_000.0);
+        System.out.println(String.format("%-8d %12d %14.0f %14d %10d", gateThreads, operations.get(),
+                opsPerSecond, doubleBookings.get(), duplicateTicketIds.get()));
+
+        return doubleBookings.get() == 0 && duplicateTicketIds.get() == 0
+                && parkingLot.getTicketManager().getActiveTicketCount() == 0;
+    }
+
+    private static ParkingLot createParkingLot() {
+        ParkingLot parkingLot = new ParkingLot("PL-STRESS", "Stress Test Deck", "1 Load St", FLOORS);
+        for (int gate = 0; gate < GATES; gate++) {
+            parkingLot.addEntryExitGate(new EntryExit(gateId(gate), EntryExitType.BOTH));
+        }
+
+        SpotType[] layout = { SpotType.COMPACT, SpotType.REGULAR, SpotType.LARGE, SpotType.LARGE,
+                SpotType.ELECTRIC };
+        for (int floorNum = 0; floorNum < FLOORS; floorNum++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                SpotType type = layout[i % layout.length];
+                parkingLot.addParkingSpot(floorNum,
+                        new ParkingSpot(String.format("F%d-%04d", floorNum, i), type, floorNum));
+            }
+        }
+        return parkingLot;
+    }
+
+    private static String gateId(int gate) {
+        return String.format("GATE-%02d", gate);
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Enum representing the shape of arrival demand over a day, as a multiplier
+ * of a site's base arrival rate by hour of day
+ */
+public enum DemandProfile {
+    STEADY("Steady"),
+    RUSH_HOUR("Rush hour"),
+    EVENT_DAY("Event day");
+
+    private final String displayName;
+
+    DemandProfile(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the arrival rate multiplier at a time of day (0 to 24 hours)
+     */
+    public double getRateMultiplier(double hourOfDay) {
+        switch (this) {
+            case RUSH_HOUR:
+                return rushHour(hourOfDay);
+            case EVENT_DAY:
+                // Ordinary commuter traffic plus a crowd arriving before an
+                // evening event
+                return rushHour(hourOfDay) + 8.0 * peak(hourOfDay, 18.5, 0.5);
+            default:
+                return 1.0;
+        }
+    }
+
+    /**
+     * Gets the highest multiplier reached during the day
+     */
+    public double getPeakMultiplier() {
+        double max = 0.0;
+        for (int minute = 0; minute < 24 * 60; minute++) {
+            max = Math.max(max, getRateMultiplier(minute / 60.0));
+        }
+        return max;
+    }
+
+    private static double rushHour(double hourOfDay) {
+        return 0.3 + 2.5 * peak(hourOfDay, 8.5, 1.0) + 2.0 * peak(hourOfDay, 17.5, 1.25);
+    }
+
+    private static double peak(double hourOfDay, double centerHour, double widthHours) {
+        double distance = (hourOfDay - centerHour) / widthHours;
+        return Math.exp(-0.5 * distance * distance);
+    }
+}
@@ -1,20 +1,22 @@
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * EntryExit class representing entry and exit gates on the ground floor
+ * EntryExit class representing entry and exit gates on the ground floor.
+ * Passage counters are safe to update from concurrent gate threads.
  */
 public class EntryExit {
     private final String gateId;
     private final EntryExitType type;
-    private boolean isOperational;
-    private int vehicleCount;
-    private LocalDateTime lastUsed;
+    private volatile boolean isOperational;
+    private final LongAdder vehicleCount;
+    private volatile LocalDateTime lastUsed;
 
     public EntryExit(String gateId, EntryExitType type) {
         this.gateId = gateId;
         this.type = type;
         this.isOperational = true;
-        this.vehicleCount = 0;
+        this.vehicleCount = new LongAdder();
         this.lastUsed = null;
     }
 
@@ -37,7 +39,7 @@ public class EntryExit {
      */
     public void recordVehiclePassage() {
         if (isOperational) {
-            vehicleCount++;
+            vehicleCount.increment();
             lastUsed = LocalDateTime.now();
         }
     }
@@ -49,11 +51,19 @@ public class EntryExit {
         this.isOperational = operational;
     }
 
+    /**
+     * Restores a vehicle count recorded in a snapshot
+     */
+    void restoreVehicleCount(long count) {
+        vehicleCount.reset();
+        vehicleCount.add(count);
+    }
+
     /**
      * Resets the vehicle count (typically done daily)
      */
     public void resetVehicleCount() {
-        this.vehicleCount = 0;
+        vehicleCount.reset();
     }
 
     // Getters
@@ -70,7 +80,7 @@ public class EntryExit {
     }
 
     public int getVehicleCount() {
-        return vehicleCount;
+        return vehicleCount.intValue();
     }
 
     public LocalDateTime getLastUsed() {
@@ -82,7 +92,7 @@ public class EntryExit {
         return String.format("Gate[%s] Type:%s Status:%s Vehicles:%d",
                 gateId, type.getDisplayName(),
                 isOperational ? "Operational" : "Out of Order",
-                vehicleCount);
+                getVehicleCount());
     }
 
     @Override
@@ -0,0 +1,139 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Benchmark for a federation of 100 lots x 2,000 spots: federation-wide
+ * status aggregation (serial getStatus() calls versus fork/join summaries)
+ * and cross-site plate lookup (asking every lot versus the plate index)
+ */
+public class FederationBenchmark {
+    private static final int LOTS = 100;
+    private static final int FLOORS = 4;
+    private static final int SPOTS_PER_FLOOR = 500;
+    private static final double OCCUPANCY = 0.65;
+    private static final int LOOKUPS = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final String GATE_ID = "GATE-1";
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== FEDERATION BENCHMARK ===");
+        System.out.println(String.format("%d lots x %d spots, %.0f%% occupied, %d CPU(s)%n", LOTS,
+                FLOORS * SPOTS_PER_FLOOR, OCCUPANCY * 100, Runtime.getRuntime().availableProcessors()));
+
+        try (ParkingFederation federation = new ParkingFederation()) {
+            List<String> plates = populate(federation);
+            List<ParkingLot> parkingLots = federation.getParkingLots();
+
+            double serialStatusNanos = measure(() -> {
+                List<Map<String, Object>> statuses = new ArrayList<>(LOTS);
+                for (ParkingLot parkingLot : parkingLots) {
+                    statuses.add(parkingLot.getStatus());
+                }
+                sink = statuses;
+            });
+            double serialSummaryNanos = measure(() -> {
+                FederationSummary summary = new FederationSummary();
+                for (ParkingLot parkingLot : parkingLots) {
+                    summary.merge(FederationSummary.of(parkingLot));
+                }
+                sink = summary;
+            });
+            double forkJoinNanos = measure(() -> sink = federation.getSummary());
+
+            System.out.println(federation.getSummary());
+            System.out.println();
+            System.out.println(String.format("%-34s %14s %10s", "Aggregation", "us/pass", "Speedup"));
+            System.out.println(String.format("%-34s %14.1f %9.2fx", "Serial getStatus() per lot",
+                    serialStatusNanos / 1000, 1.0));
+            System.out.println(String.format("%-34s %14.1f %9.2fx", "Serial counter summaries",
+                    serialSummaryNanos / 1000, serialStatusNanos / serialSummaryNanos));
+            System.out.println(String.format("%-34s %14.1f %9.2fx", "Fork/join counter summaries",
+                    forkJoinNanos / 1000, serialStatusNanos / forkJoinNanos));
+
+            Random random = new Random(42);
+            String[] lookupPlates = new String[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                lookupPlates[i] = plates.get(random.nextInt(plates.size()));
+            }
+            double scanNanos = measure(() -> {
+                int found = 0;
+                for (String plate : lookupPlates) {
+                    for (ParkingLot parkingLot : parkingLots) {
+                        if (parkingLot.findVehicleLocation(plate) != null) {
+                            found++;
+                            break;
+                        }
+                    }
+                }
+                sink = found;
+            });
+            double indexNanos = measure(() -> {
+                int found = 0;
+                for (String plate : lookupPlates) {
+                    if (federation.findVehicleSite(plate) != null) {
+                        found++;
+                    }
+                }
+                sink = found;
+            });
+
+            System.out.println();
+            System.out.println(String.format("%-34s %14s %10s", "Plate lookup", "ns/lookup", "Speedup"));
+            System.out.println(String.format("%-34s %14.0f %9.2fx", "Ask every lot", scanNanos / LOOKUPS, 1.0));
+            System.out.println(String.format("%-34s %14.0f %9.2fx", "Federation plate index",
+                    indexNanos / LOOKUPS, scanNanos / indexNanos));
+        }
+    }
+
+    /**
+     * Creates the lots and parks vehicles through each site's shard executor
+     */
+    private static List<String> populate(ParkingFederation federation) throws Exception {
+        SpotType[] layout = { SpotType.COMPACT, SpotType.REGULAR, SpotType.REGULAR, SpotType.REGULAR,
+                SpotType.LARGE, SpotType.ELECTRIC };
+        VehicleType[] mix = { VehicleType.CAR, VehicleType.CAR, VehicleType.CAR, VehicleType.MOTORCYCLE,
+                VehicleType.VAN };
+        int vehiclesPerLot = (int) (FLOORS * SPOTS_PER_FLOOR * OCCUPANCY);
+        List<String> plates = new ArrayList<>(LOTS * vehiclesPerLot);
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+
+        for (int lot = 0; lot < LOTS; lot++) {
+            String lotId = String.format("SITE-%03d", lot);
+            ParkingLot parkingLot = new ParkingLot(lotId, "Site " + lot, lot + " Federation Ave", FLOORS);
+            parkingLot.addEntryExitGate(new EntryExit(GATE_ID, EntryExitType.BOTH));
+            for (int floorNum = 0; floorNum < FLOORS; floorNum++) {
+                for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                    parkingLot.addParkingSpot(floorNum, new ParkingSpot(String.format("F%d-%04d", floorNum, i),
+                            layout[i % layout.length], floorNum));
+                }
+            }
+            federation.addParkingLot(parkingLot);
+
+            for (int i = 0; i < vehiclesPerLot; i++) {
+                String plate = String.format("S%03d-%05d", lot, i);
+                plates.add(plate);
+                pending.add(federation.parkVehicle(lotId, new Vehicle(plate, mix[i % mix.length], "Blue", "Fed"),
+                        GATE_ID));
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get();
+        return plates;
+    }
+
+    /**
+     * Returns the mean time in nanoseconds for one run of the task
+     */
+    private static double measure(Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            task.run();
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_ROUNDS;
+    }
+}
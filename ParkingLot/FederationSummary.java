@@ -0,0 +1,115 @@
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Occupancy and revenue totals across the lots of a ParkingFederation.
+ * Partial summaries from different lots are combined with merge, so they can
+ * be computed in parallel.
+ */
+public class FederationSummary {
+    private int lotCount;
+    private int totalCapacity;
+    private int occupiedSpots;
+    private final int[] availableByType;
+    private int activeTickets;
+    private long completedTickets;
+    private double totalRevenue;
+    private double evChargingRevenue;
+
+    public FederationSummary() {
+        this.availableByType = new int[SpotType.values().length];
+    }
+
+    /**
+     * Summarizes a single lot from its floor, availability and ticket counters
+     */
+    public static FederationSummary of(ParkingLot parkingLot) {
+        FederationSummary summary = new FederationSummary();
+        summary.lotCount = 1;
+        for (int floorNum = 0; floorNum < parkingLot.getTotalFloors(); floorNum++) {
+            Floor floor = parkingLot.getFloor(floorNum);
+            summary.totalCapacity += floor.getTotalCapacity();
+            summary.occupiedSpots += floor.getOccupiedSpotCount();
+        }
+        FloorAvailabilitySummary availability = parkingLot.getAvailabilitySummary();
+        for (SpotType spotType : SpotType.values()) {
+            summary.availableByType[spotType.ordinal()] = availability.getAvailableSpotCount(spotType);
+        }
+
+        TicketManager ticketManager = parkingLot.getTicketManager();
+        Map<String, Double> revenueStats = ticketManager.getRevenueStats();
+        summary.activeTickets = ticketManager.getActiveTicketCount();
+        summary.completedTickets = ticketManager.getCompletedTicketCount();
+        summary.totalRevenue = revenueStats.get("totalRevenue");
+        summary.evChargingRevenue = revenueStats.get("evChargingRevenue");
+        return summary;
+    }
+
+    /**
+     * Adds another partial summary into this one
+     */
+    public FederationSummary merge(FederationSummary other) {
+        lotCount += other.lotCount;
+        totalCapacity += other.totalCapacity;
+        occupiedSpots += other.occupiedSpots;
+        for (int i = 0; i < availableByType.length; i++) {
+            availableByType[i] += other.availableByType[i];
+        }
+        activeTickets += other.activeTickets;
+        completedTickets += other.completedTickets;
+        totalRevenue += other.totalRevenue;
+        evChargingRevenue += other.evChargingRevenue;
+        return this;
+    }
+
+    // Getters
+    public int getLotCount() {
+        return lotCount;
+    }
+
+    public int getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public int getOccupiedSpots() {
+        return occupiedSpots;
+    }
+
+    public int getAvailableSpots() {
+        return totalCapacity - occupiedSpots;
+    }
+
+    public double getOccupancyRate() {
+        return totalCapacity > 0 ? (double) occupiedSpots / totalCapacity : 0.0;
+    }
+
+    public Map<SpotType, Integer> getAvailableSpotsByType() {
+        Map<SpotType, Integer> available = new EnumMap<>(SpotType.class);
+        for (SpotType spotType : SpotType.values()) {
+            available.put(spotType, availableByType[spotType.ordinal()]);
+        }
+        return available;
+    }
+
+    public int getActiveTickets() {
+        return activeTickets;
+    }
+
+    public long getCompletedTickets() {
+        return completedTickets;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public double getEVChargingRevenue() {
+        return evChargingRevenue;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d lots - %d/%d spots occupied (%.1f%% occupancy), %d active tickets, $%.2f revenue",
+                lotCount, occupiedSpots, totalCapacity, getOccupancyRate() * 100, activeTickets, totalRevenue);
+    }
+}
@@ -0,0 +1,112 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the original Duration/double fee calculation with the
+ * TariffEngine, both per ticket and in bulk over an array of active tickets
+ */
+public class FeeCalculationBenchmark {
+    private static final int TICKETS = 10_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    private static volatile double doubleSink;
+    private static volatile long longSink;
+
+    public static void main(String[] args) {
+        System.out.println("=== FEE CALCULATION BENCHMARK ===");
+        System.out.println(String.format("%d active tickets, entry times spread over 48 hours%n", TICKETS));
+
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = TariffEngine.toEpochMillis(now);
+        Ticket[] tickets = createTickets(now);
+        long[] feesCents = new long[TICKETS];
+
+        int mismatches = 0;
+        for (Ticket ticket : tickets) {
+            long engineCents = TariffEngine.STANDARD.calculateFeeCents(ticket.getVehicle().getType(),
+                    ticket.getAssignedSpot().getSpotType(), ticket.getEntryEpochMillis(), nowMillis);
+            if (Math.abs(legacyFee(ticket, now) - engineCents / 100.0) > 0.005) {
+                mismatches++;
+            }
+        }
+        System.out.println(String.format("Fee mismatches against original formula: %d%n", mismatches));
+
+        double legacyNanos = measure(() -> {
+            double total = 0;
+            for (Ticket ticket : tickets) {
+                total += legacyFee(ticket, now);
+            }
+            doubleSink = total;
+        });
+        double engineNanos = measure(() -> {
+            long total = 0;
+            for (Ticket ticket : tickets) {
+                total += TariffEngine.STANDARD.calculateFeeCents(ticket.getVehicle().getType(),
+                        ticket.getAssignedSpot().getSpotType(), ticket.getEntryEpochMillis(), nowMillis);
+            }
+            longSink = total;
+        });
+        double bulkNanos = measure(() -> {
+            TariffEngine.STANDARD.calculateFeesCents(tickets, TICKETS, nowMillis, feesCents);
+            longSink = feesCents[TICKETS - 1];
+        });
+
+        System.out.println(String.format("%-28s %12s %10s", "Implementation", "ns/ticket", "Speedup"));
+        System.out.println(String.format("%-28s %12.1f %9.2fx", "Duration + double (original)",
+                legacyNanos / TICKETS, 1.0));
+        System.out.println(String.format("%-28s %12.1f %9.2fx", "TariffEngine per ticket",
+                engineNanos / TICKETS, legacyNanos / engineNanos));
+        System.out.println(String.format("%-28s %12.1f %9.2fx", "TariffEngine bulk",
+                bulkNanos / TICKETS, legacyNanos / bulkNanos));
+    }
+
+    /**
+     * The fee calculation as originally written in Ticket.calculateParkingFee
+     */
+    private static double legacyFee(Ticket ticket, LocalDateTime exitTime) {
+        Duration parkingDuration = Duration.between(ticket.getEntryTime(), exitTime);
+        long hours = parkingDuration.toHours();
+        if (parkingDuration.toMinutesPart() > 0) {
+            hours++;
+        }
+        if (hours == 0) {
+            hours = 1;
+        }
+
+        double parkingFee = 5.0 * hours * ticket.getVehicle().getType().getSizeMultiplier()
+                * ticket.getAssignedSpot().getSpotType().getPriceMultiplier();
+        double evChargingFee = ticket.hasEVCharging() ? hours * 2.0 : 0.0;
+        return parkingFee + evChargingFee;
+    }
+
+    /**
+     * Returns the mean time in nanoseconds for one run of the task
+     */
+    private static double measure(Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            task.run();
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_ROUNDS;
+    }
+
+    private static Ticket[] createTickets(LocalDateTime now) {
+        Random random = new Random(42);
+        Ticket[] tickets = new Ticket[TICKETS];
+        for (int i = 0; i < TICKETS; i++) {
+            VehicleType vehicleType = VehicleType.values()[random.nextInt(VehicleType.values().length)];
+            SpotType spotType = SpotType.values()[random.nextInt(SpotType.values().length)];
+            LocalDateTime entryTime = now.minusSeconds(random.nextInt(48 * 3600));
+            tickets[i] = new Ticket(String.format("TKT-BENCH-%05d", i),
+                    new Vehicle(String.format("BENCH-%05d", i), vehicleType, "White", "Bench"),
+                    new ParkingSpot(String.format("S%05d", i), spotType, 0), "ENTRY-1",
+                    entryTime, null, null, 0.0, false);
+        }
+        return tickets;
+    }
+}
@@ -1,49 +1,96 @@
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.Collectors;
 
 /**
  * Floor class representing a floor in the parking lot with multiple parking
- * spots
+ * spots. Allocation works on lock-free free-spot queues, so several gates can
+ * park on the same floor in parallel.
  */
-public class Floor {
+public class Floor implements SpotStatusListener {
     private final int floorNumber;
     private final Map<String, ParkingSpot> spots;
-    private final Map<SpotType, List<ParkingSpot>> spotsByType;
-    private int totalCapacity;
+    private final AtomicIntegerArray capacityByType;
+    private final Map<SpotType, Queue<ParkingSpot>> freeSpotsByType;
+    private final AtomicIntegerArray availableCountByType;
+    private final AtomicInteger availableCount;
+    private final AtomicIntegerArray occupiedCountByType;
+    private final AtomicInteger occupiedCount;
+    private final List<SpotStatusListener> statusListeners;
+    private final FloorAvailabilitySummary availabilitySummary;
+    private volatile int totalCapacity;
 
     public Floor(int floorNumber) {
+        this(floorNumber, null);
+    }
+
+    /**
+     * Creates a floor that reports its free-spot counts to a lot-level
+     * summary
+     */
+    public Floor(int floorNumber, FloorAvailabilitySummary availabilitySummary) {
         this.floorNumber = floorNumber;
-        this.spots = new HashMap<>();
-        this.spotsByType = new EnumMap<>(SpotType.class);
+        this.availabilitySummary = availabilitySummary;
+        this.spots = new ConcurrentHashMap<>();
+        this.capacityByType = new AtomicIntegerArray(SpotType.values().length);
+        this.freeSpotsByType = new EnumMap<>(SpotType.class);
+        this.availableCountByType = new AtomicIntegerArray(SpotType.values().length);
+        this.availableCount = new AtomicInteger(0);
+        this.occupiedCountByType = new AtomicIntegerArray(SpotType.values().length);
+        this.occupiedCount = new AtomicInteger(0);
+        this.statusListeners = new CopyOnWriteArrayList<>();
         this.totalCapacity = 0;
 
         // Initialize spot type maps
         for (SpotType type : SpotType.values()) {
-            spotsByType.put(type, new ArrayList<>());
+            freeSpotsByType.put(type, new ConcurrentLinkedQueue<>());
         }
     }
 
     /**
      * Adds a parking spot to this floor
      */
-    public void addParkingSpot(ParkingSpot spot) {
+    public synchronized void addParkingSpot(ParkingSpot spot) {
         if (spot.getFloor() != this.floorNumber) {
             throw new IllegalArgumentException("Spot floor number doesn't match this floor");
         }
 
         spots.put(spot.getSpotId(), spot);
-        spotsByType.get(spot.getSpotType()).add(spot);
+        capacityByType.incrementAndGet(spot.getSpotType().ordinal());
         totalCapacity++;
+
+        spot.setStatusListener(this);
+        if (spot.isAvailable()) {
+            adjustAvailableCount(spot.getSpotType(), 1);
+            enqueueFreeSpot(spot);
+        } else if (spot.getStatus() == SpotStatus.OCCUPIED) {
+            adjustOccupiedCount(spot.getSpotType(), 1);
+        }
     }
 
     /**
      * Removes a parking spot from this floor
      */
-    public boolean removeParkingSpot(String spotId) {
+    public synchronized boolean removeParkingSpot(String spotId) {
         ParkingSpot spot = spots.remove(spotId);
         if (spot != null) {
-            spotsByType.get(spot.getSpotType()).remove(spot);
+            capacityByType.decrementAndGet(spot.getSpotType().ordinal());
             totalCapacity--;
+
+            spot.setStatusListener(null);
+            if (spot.isQueuedAsFree()) {
+                freeSpotsByType.get(spot.getSpotType()).remove(spot);
+                spot.clearQueuedAsFree();
+            }
+            if (spot.isAvailable()) {
+                adjustAvailableCount(spot.getSpotType(), -1);
+            } else if (spot.getStatus() == SpotStatus.OCCUPIED) {
+                adjustOccupiedCount(spot.getSpotType(), -1);
+            }
             return true;
         }
         return false;
@@ -54,13 +101,35 @@ public class Floor {
      */
     public ParkingSpot findAvailableSpot(Vehicle vehicle) {
         // Try to find the most appropriate spot type for the vehicle
-        List<SpotType> preferredSpotTypes = getPreferredSpotTypes(vehicle);
+        for (SpotType spotType : vehicle.getPreferredSpotTypes()) {
+            if (availableCountByType.get(spotType.ordinal()) == 0) {
+                continue;
+            }
+            ParkingSpot spot = peekFreeSpot(spotType);
+            if (spot != null) {
+                return spot;
+            }
+        }
+        return null;
+    }
 
-        for (SpotType spotType : preferredSpotTypes) {
-            List<ParkingSpot> spotsOfType = spotsByType.get(spotType);
-            for (ParkingSpot spot : spotsOfType) {
-                if (spot.canParkVehicle(vehicle)) {
-                    return spot;
+    /**
+     * Returns the head of the free queue for a spot type, dropping entries
+     * that stopped being available since they were queued
+     */
+    private ParkingSpot peekFreeSpot(SpotType spotType) {
+        Queue<ParkingSpot> freeSpots = freeSpotsByType.get(spotType);
+        ParkingSpot spot;
+        while ((spot = freeSpots.peek()) != null) {
+            if (spot.isAvailable()) {
+                return spot;
+            }
+            // Another thread may have dropped the same head already
+            if (freeSpots.remove(spot)) {
+                spot.clearQueuedAsFree();
+                // The spot may have been freed again before the flag was cleared
+                if (spot.isAvailable()) {
+                    enqueueFreeSpot(spot);
                 }
             }
         }
@@ -68,37 +137,90 @@ public class Floor {
     }
 
     /**
-     * Gets preferred spot types for a vehicle (in order of preference)
+     * Keeps the free-spot queues and the availability and occupancy counters
+     * in step with spot status changes
+     */
+    @Override
+    public void onStatusChanged(ParkingSpot spot, SpotStatus oldStatus, SpotStatus newStatus) {
+        if (oldStatus == SpotStatus.AVAILABLE) {
+            adjustAvailableCount(spot.getSpotType(), -1);
+        } else if (oldStatus == SpotStatus.OCCUPIED) {
+            adjustOccupiedCount(spot.getSpotType(), -1);
+        }
+        if (newStatus == SpotStatus.AVAILABLE) {
+            adjustAvailableCount(spot.getSpotType(), 1);
+            enqueueFreeSpot(spot);
+        } else if (newStatus == SpotStatus.OCCUPIED) {
+            adjustOccupiedCount(spot.getSpotType(), 1);
+        }
+
+        for (SpotStatusListener listener : statusListeners) {
+            listener.onStatusChanged(spot, oldStatus, newStatus);
+        }
+    }
+
+    /**
+     * Registers a listener for status changes of any spot on this floor; it is
+     * called after the floor's own indexes have been updated
      */
-    private List<SpotType> getPreferredSpotTypes(Vehicle vehicle) {
-        List<SpotType> preferred = new ArrayList<>();
+    public void addStatusListener(SpotStatusListener listener) {
+        statusListeners.add(listener);
+    }
+
+    private void enqueueFreeSpot(ParkingSpot spot) {
+        if (spot.markQueuedAsFree()) {
+            freeSpotsByType.get(spot.getSpotType()).offer(spot);
+        }
+    }
 
-        switch (vehicle.getType()) {
-            case MOTORCYCLE:
-                preferred.addAll(Arrays.asList(SpotType.COMPACT, SpotType.REGULAR,
-                        SpotType.ELECTRIC, SpotType.HANDICAPPED, SpotType.LARGE));
-                break;
-            case CAR:
-                preferred.addAll(Arrays.asList(SpotType.REGULAR, SpotType.ELECTRIC,
-                        SpotType.HANDICAPPED, SpotType.LARGE));
-                break;
-            case VAN:
-                preferred.addAll(Arrays.asList(SpotType.LARGE, SpotType.REGULAR));
-                break;
-            case TRUCK:
-                preferred.add(SpotType.LARGE);
-                break;
+    private void adjustAvailableCount(SpotType spotType, int delta) {
+        availableCountByType.addAndGet(spotType.ordinal(), delta);
+        availableCount.addAndGet(delta);
+        if (availabilitySummary != null) {
+            availabilitySummary.onAvailableCountChanged(this, spotType, delta);
         }
-        return preferred;
+    }
+
+    private void adjustOccupiedCount(SpotType spotType, int delta) {
+        occupiedCountByType.addAndGet(spotType.ordinal(), delta);
+        occupiedCount.addAndGet(delta);
     }
 
     /**
-     * Parks a vehicle on this floor
+     * Parks a vehicle on this floor. Safe to call from several gates at once:
+     * a spot lost to another gate is skipped and the next free one is tried.
      */
     public ParkingSpot parkVehicle(Vehicle vehicle) {
-        ParkingSpot availableSpot = findAvailableSpot(vehicle);
-        if (availableSpot != null && availableSpot.parkVehicle(vehicle)) {
-            return availableSpot;
+        ParkingSpot availableSpot;
+        while ((availableSpot = findAvailableSpot(vehicle)) != null) {
+            if (availableSpot.parkVehicle(vehicle)) {
+                return availableSpot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets aside a free spot of the given type; returns null if none is free
+     */
+    public ParkingSpot reserveSpot(SpotType spotType) {
+        return claimSpot(spotType, false);
+    }
+
+    /**
+     * Sets aside a free spot of the given type for a ReservationManager
+     * booking; returns null if none is free
+     */
+    ParkingSpot holdSpotForReservation(SpotType spotType) {
+        return claimSpot(spotType, true);
+    }
+
+    private ParkingSpot claimSpot(SpotType spotType, boolean reservationHold) {
+        ParkingSpot spot;
+        while (availableCountByType.get(spotType.ordinal()) > 0 && (spot = peekFreeSpot(spotType)) != null) {
+            if (reservationHold ? spot.holdForReservation() : spot.reserve()) {
+                return spot;
+            }
         }
         return null;
     }
@@ -149,10 +271,7 @@ public class Floor {
         Map<SpotType, Integer> availableCounts = new EnumMap<>(SpotType.class);
 
         for (SpotType type : SpotType.values()) {
-            long count = spotsByType.get(type).stream()
-                    .filter(ParkingSpot::isAvailable)
-                    .count();
-            availableCounts.put(type, (int) count);
+            availableCounts.put(type, availableCountByType.get(type.ordinal()));
         }
 
         return availableCounts;
@@ -162,14 +281,11 @@ public class Floor {
      * Gets the occupancy rate of this floor
      */
     public double getOccupancyRate() {
-        if (totalCapacity == 0)
+        int capacity = totalCapacity;
+        if (capacity == 0)
             return 0.0;
 
-        long occupiedCount = spots.values().stream()
-                .filter(spot -> spot.getStatus() == SpotStatus.OCCUPIED)
-                .count();
-
-        return (double) occupiedCount / totalCapacity;
+        return (double) occupiedCount.get() / capacity;
     }
 
     // Getters
@@ -189,16 +305,24 @@ public class Floor {
         return totalCapacity;
     }
 
+    public int getTotalCapacity(SpotType spotType) {
+        return capacityByType.get(spotType.ordinal());
+    }
+
     public int getAvailableSpotCount() {
-        return (int) spots.values().stream()
-                .filter(ParkingSpot::isAvailable)
-                .count();
+        return availableCount.get();
+    }
+
+    public int getAvailableSpotCount(SpotType spotType) {
+        return availableCountByType.get(spotType.ordinal());
     }
 
     public int getOccupiedSpotCount() {
-        return (int) spots.values().stream()
-                .filter(spot -> spot.getStatus() == SpotStatus.OCCUPIED)
-                .count();
+        return occupiedCount.get();
+    }
+
+    public int getOccupiedSpotCount(SpotType spotType) {
+        return occupiedCountByType.get(spotType.ordinal());
     }
 
     @Override
@@ -0,0 +1,125 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lot-level summary of free spots: a running total per spot type and, per
+ * spot type, a bitmap of the floors that still have at least one such spot
+ * free. Floors report every change of their availability counters, so the
+ * lot can skip full floors and count free spots without visiting them.
+ */
+public class FloorAvailabilitySummary {
+    private static final SpotType[] SPOT_TYPES = SpotType.values();
+
+    private final int totalFloors;
+    private final AtomicIntegerArray availableByType;
+    private final AtomicLongArray[] floorsWithSpaceByType;
+
+    public FloorAvailabilitySummary(int totalFloors) {
+        this.totalFloors = totalFloors;
+        this.availableByType = new AtomicIntegerArray(SPOT_TYPES.length);
+        this.floorsWithSpaceByType = new AtomicLongArray[SPOT_TYPES.length];
+        int words = (totalFloors + 63) >>> 6;
+        for (int i = 0; i < SPOT_TYPES.length; i++) {
+            floorsWithSpaceByType[i] = new AtomicLongArray(words);
+        }
+    }
+
+    /**
+     * Called by a floor after its free count for a spot type changed by delta.
+     * The floor bit is re-read after clearing, so a spot freed concurrently
+     * on the same floor never leaves the floor marked full.
+     */
+    void onAvailableCountChanged(Floor floor, SpotType spotType, int delta) {
+        availableByType.addAndGet(spotType.ordinal(), delta);
+        AtomicLongArray floorBits = floorsWithSpaceByType[spotType.ordinal()];
+        int floorNum = floor.getFloorNumber();
+        if (floor.getAvailableSpotCount(spotType) > 0) {
+            setBit(floorBits, floorNum);
+        } else {
+            clearBit(floorBits, floorNum);
+            if (floor.getAvailableSpotCount(spotType) > 0) {
+                setBit(floorBits, floorNum);
+            }
+        }
+    }
+
+    /**
+     * First floor at or above fromFloor with a free spot of any of the given
+     * types, or -1 if there is none
+     */
+    public int nextFloorWithSpace(SpotType[] spotTypes, int fromFloor) {
+        if (fromFloor < 0 || fromFloor >= totalFloors) {
+            return -1;
+        }
+        int word = fromFloor >>> 6;
+        long mask = -1L << (fromFloor & 63);
+        int words = (totalFloors + 63) >>> 6;
+        for (; word < words; word++, mask = -1L) {
+            long bits = 0;
+            for (SpotType spotType : spotTypes) {
+                bits |= floorsWithSpaceByType[spotType.ordinal()].get(word);
+            }
+            bits &= mask;
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * First floor at or above fromFloor with any free spot, or -1
+     */
+    public int nextFloorWithSpace(int fromFloor) {
+        return nextFloorWithSpace(SPOT_TYPES, fromFloor);
+    }
+
+    public boolean hasSpace(int floorNum, SpotType spotType) {
+        AtomicLongArray floorBits = floorsWithSpaceByType[spotType.ordinal()];
+        return (floorBits.get(floorNum >>> 6) & (1L << (floorNum & 63))) != 0;
+    }
+
+    public int getAvailableSpotCount(SpotType spotType) {
+        return availableByType.get(spotType.ordinal());
+    }
+
+    public int getAvailableSpotCount() {
+        int total = 0;
+        for (int i = 0; i < SPOT_TYPES.length; i++) {
+            total += availableByType.get(i);
+        }
+        return total;
+    }
+
+    public Map<SpotType, Integer> getAvailableSpotsByType() {
+        Map<SpotType, Integer> available = new EnumMap<>(SpotType.class);
+        for (SpotType spotType : SPOT_TYPES) {
+            available.put(spotType, availableByType.get(spotType.ordinal()));
+        }
+        return available;
+    }
+
+    public int getTotalFloors() {
+        return totalFloors;
+    }
+
+    private static void setBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long bit = 1L << (index & 63);
+        long current;
+        while (((current = bits.get(word)) & bit) == 0 && !bits.compareAndSet(word, current, current | bit)) {
+            // Another floor in the same word changed; retry
+        }
+    }
+
+    private static void clearBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long bit = 1L << (index & 63);
+        long current;
+        while (((current = bits.get(word)) & bit) != 0 && !bits.compareAndSet(word, current, current & ~bit)) {
+            // Another floor in the same word changed; retry
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.*;
+
+/**
+ * Benchmark for the floor selection pass on a tall lot whose lower floors are
+ * full: parking with the lot's availability summary against asking every
+ * floor in turn, and counting free spots by type from the summary against
+ * summing the floors
+ */
+public class FloorSelectionBenchmark {
+    private static final int SPOTS_PER_FLOOR = 200;
+    private static final int WARMUP_CYCLES = 200_000;
+    private static final int MEASURED_CYCLES = 1_000_000;
+    private static final int COUNTING_WARMUP_CYCLES = 10_000;
+    private static final int COUNTING_MEASURED_CYCLES = 50_000;
+    private static final String GATE_ID = "GATE-1";
+
+    public static void main(String[] args) {
+        System.out.println("=== FLOOR SELECTION BENCHMARK ===");
+        System.out.println(String.format("%d spots per floor, every floor but the top one full%n", SPOTS_PER_FLOOR));
+        System.out.println(String.format("%-8s %18s %18s %10s %18s %18s", "Floors", "Floor scan ns/op",
+                "Summary ns/op", "Speedup", "Sum floors ns/op", "Summary ns/op"));
+
+        // The first round only warms up the JIT
+        for (boolean report : new boolean[] { false, true }) {
+            for (int floors : new int[] { 4, 16, 64, 256 }) {
+                ParkingLot parkingLot = createParkingLot(floors);
+                double scanNanos = measureParking(parkingLot, new FloorScanStrategy());
+                double summaryNanos = measureParking(parkingLot, new LowestFloorFirstStrategy());
+                double sumFloorsNanos = measureCounting(parkingLot, false);
+                double summaryCountNanos = measureCounting(parkingLot, true);
+                if (report) {
+                    System.out.println(String.format("%-8d %18.0f %18.0f %9.2fx %18.0f %18.0f", floors, scanNanos,
+                            summaryNanos, scanNanos / summaryNanos, sumFloorsNanos, summaryCountNanos));
+                }
+            }
+        }
+    }
+
+    /**
+     * Mean time in nanoseconds to allocate a spot on the top floor and free it
+     * again; tickets are left out so only the floor selection pass is timed
+     */
+    private static double measureParking(ParkingLot parkingLot, SpotAllocationStrategy strategy) {
+        Vehicle vehicle = new Vehicle("BENCH-0001", VehicleType.CAR, "Grey", "Bench");
+        EntryExit gate = parkingLot.getEntryExitGates().get(0);
+        long start = 0;
+        for (int cycle = 0; cycle < WARMUP_CYCLES + MEASURED_CYCLES; cycle++) {
+            if (cycle == WARMUP_CYCLES) {
+                start = System.nanoTime();
+            }
+            strategy.allocate(parkingLot, vehicle, gate).removeVehicle();
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_CYCLES;
+    }
+
+    /**
+     * Mean time in nanoseconds to count free spots by type
+     */
+    private static double measureCounting(ParkingLot parkingLot, boolean useSummary) {
+        long checksum = 0;
+        long start = 0;
+        for (int cycle = 0; cycle < COUNTING_WARMUP_CYCLES + COUNTING_MEASURED_CYCLES; cycle++) {
+            if (cycle == COUNTING_WARMUP_CYCLES) {
+                start = System.nanoTime();
+            }
+            if (useSummary) {
+                checksum += parkingLot.getAvailableSpotsByType().get(SpotType.REGULAR);
+            } else {
+                Map<SpotType, Integer> available = new EnumMap<>(SpotType.class);
+                for (int floorNum = 0; floorNum < parkingLot.getTotalFloors(); floorNum++) {
+                    parkingLot.getFloor(floorNum).getAvailableSpotsByType()
+                            .forEach((type, count) -> available.merge(type, count, Integer::sum));
+                }
+                checksum += available.get(SpotType.REGULAR);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum < 0) {
+            System.out.println(checksum); // Keeps the loop from being optimized away
+        }
+        return (double) elapsed / COUNTING_MEASURED_CYCLES;
+    }
+
+    private static ParkingLot createParkingLot(int floors) {
+        ParkingLot parkingLot = new ParkingLot("PL-TALL", "Tower Garage", "1 High St", floors);
+        parkingLot.addEntryExitGate(new EntryExit(GATE_ID, EntryExitType.BOTH));
+
+        SpotType[] layout = { SpotType.COMPACT, SpotType.REGULAR, SpotType.REGULAR, SpotType.REGULAR,
+                SpotType.REGULAR, SpotType.LARGE, SpotType.LARGE, SpotType.ELECTRIC };
+        for (int floorNum = 0; floorNum < floors; floorNum++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                ParkingSpot spot = new ParkingSpot(String.format("F%d-%04d", floorNum, i), layout[i % layout.length],
+                        floorNum);
+                parkingLot.addParkingSpot(floorNum, spot);
+                if (floorNum < floors - 1) {
+                    spot.markOutOfOrder(); // Stands in for a parked vehicle without a ticket
+                }
+            }
+        }
+        return parkingLot;
+    }
+
+    /**
+     * The floor selection pass without the summary: every floor is asked in
+     * turn from the ground floor up
+     */
+    private static final class FloorScanStrategy implements SpotAllocationStrategy {
+
+        @Override
+        public ParkingSpot allocate(ParkingLot parkingLot, Vehicle vehicle, EntryExit entryGate) {
+            for (int floorNum = 0; floorNum < parkingLot.getTotalFloors(); floorNum++) {
+                ParkingSpot spot = parkingLot.getFloor(floorNum).parkVehicle(vehicle);
+                if (spot != null) {
+                    return spot;
+                }
+            }
+            return null;
+        }
+    }
+}
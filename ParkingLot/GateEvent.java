@@ -0,0 +1,73 @@
+/**
+ * One recorded or simulated gate action: a vehicle parking, paying or
+ * leaving at a given time. Gate logs store one event per line as
+ * epochMillis,operation,gateId,licensePlate,vehicleType.
+ */
+public class GateEvent {
+    private final long timeMillis;
+    private final GateOperation operation;
+    private final String gateId;
+    private final String licensePlate;
+    private final VehicleType vehicleType;
+
+    public GateEvent(long timeMillis, GateOperation operation, String gateId, String licensePlate,
+            VehicleType vehicleType) {
+        this.timeMillis = timeMillis;
+        this.operation = operation;
+        this.gateId = gateId;
+        this.licensePlate = licensePlate;
+        this.vehicleType = vehicleType;
+    }
+
+    /**
+     * Parses one gate log line
+     */
+    public static GateEvent parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Malformed gate log line: " + line);
+        }
+        try {
+            return new GateEvent(Long.parseLong(fields[0].trim()), GateOperation.valueOf(fields[1].trim()),
+                    fields[2].trim(), fields[3].trim(), VehicleType.valueOf(fields[4].trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed gate log line: " + line, e);
+        }
+    }
+
+    /**
+     * Formats the event as a gate log line
+     */
+    public String toLogLine() {
+        return String.format("%d,%s,%s,%s,%s", timeMillis, operation, gateId, licensePlate, vehicleType);
+    }
+
+    // Getters
+    /**
+     * Epoch milliseconds (UTC) of the event
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public GateOperation getOperation() {
+        return operation;
+    }
+
+    public String getGateId() {
+        return gateId;
+    }
+
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    @Override
+    public String toString() {
+        return toLogLine();
+    }
+}
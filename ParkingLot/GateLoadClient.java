@@ -0,0 +1,261 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Load-test client for GateServer. Opens many terminal connections from one
+ * selector thread, holds them all open, then has every terminal run park /
+ * exit cycles and reports throughput and round-trip latency percentiles.
+ * Usage:
+ * <pre>
+ * java GateLoadClient [connections [cycles]]            in-process server
+ * java GateLoadClient serve port                        standalone server
+ * java GateLoadClient connections cycles host port      against a server
+ * </pre>
+ * Each connection uses a file descriptor on both ends; raise ulimit -n for
+ * tens of thousands of terminals.
+ */
+public class GateLoadClient {
+    private static final String LOT_ID = "PL-GATE";
+    private static final String[] GATE_IDS = { "GATE-1", "GATE-2", "GATE-3", "GATE-4" };
+    private static final int MAX_PENDING_CONNECTS = 256;
+    private static final int WORKER_THREADS = 4;
+    private static final int MAX_IN_FLIGHT = 256;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("serve")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 9090;
+            GateServer server = createServer(port, 20_000);
+            System.out.println("Gate server for " + LOT_ID + " listening on port " + server.getPort());
+            Thread.currentThread().join();
+            return;
+        }
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int cycles = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.println("=== GATE SERVER LOAD TEST ===");
+        GateServer server = null;
+        InetSocketAddress address;
+        if (args.length > 3) {
+            address = new InetSocketAddress(args[2], Integer.parseInt(args[3]));
+        } else {
+            server = createServer(0, connections);
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+        }
+        try {
+            new GateLoadClient(address, connections, cycles).run(server);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final int connections;
+    private final int cycles;
+    private final Selector selector;
+    private final LatencyHistogram latency;
+    private final Map<String, Integer> replyCounts;
+    private int connected;
+    private int failed;
+    private int finished;
+
+    private GateLoadClient(InetSocketAddress address, int connections, int cycles) throws IOException {
+        this.address = address;
+        this.connections = connections;
+        this.cycles = cycles;
+        this.selector = Selector.open();
+        this.latency = new LatencyHistogram();
+        this.replyCounts = new TreeMap<>();
+    }
+
+    private void run(GateServer server) throws IOException {
+        List<Terminal> terminals = new ArrayList<>(connections);
+        long connectStart = System.nanoTime();
+        int opened = 0;
+        while (connected + failed < connections) {
+            while (opened < connections && opened - connected - failed < MAX_PENDING_CONNECTS) {
+                terminals.add(openTerminal(opened++));
+            }
+            selectOnce();
+        }
+        double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+        System.out.println(String.format("%d terminals connected in %.2fs (%d failed)%s", connected, connectSeconds,
+                failed, server != null ? ", server sees " + server.getConnectionCount() + " open connections" : ""));
+
+        long runStart = System.nanoTime();
+        for (Terminal terminal : terminals) {
+            if (terminal.channel.isConnected()) {
+                terminal.sendPark();
+            }
+        }
+        while (finished < connected) {
+            selectOnce();
+        }
+        double runSeconds = (System.nanoTime() - runStart) / 1e9;
+        for (Terminal terminal : terminals) {
+            terminal.channel.close();
+        }
+        selector.close();
+
+        System.out.println(String.format("%d requests in %.2fs: %.0f requests/sec", latency.getCount(), runSeconds,
+                latency.getCount() / runSeconds));
+        System.out.println(String.format("Round trip: mean %.1fus p50 %.1fus p99 %.1fus p99.9 %.1fus max %.1fus",
+                latency.getMeanNanos() / 1e3, latency.getValueAtPercentile(50.0) / 1e3,
+                latency.getValueAtPercentile(99.0) / 1e3, latency.getValueAtPercentile(99.9) / 1e3,
+                latency.getMaxNanos() / 1e3));
+        System.out.println("Replies: " + replyCounts);
+    }
+
+    private Terminal openTerminal(int index) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Terminal terminal = new Terminal(index, channel);
+        try {
+            if (channel.connect(address)) {
+                terminal.key = channel.register(selector, SelectionKey.OP_READ, terminal);
+                connected++;
+            } else {
+                terminal.key = channel.register(selector, SelectionKey.OP_CONNECT, terminal);
+            }
+        } catch (IOException e) {
+            failed++;
+            channel.close();
+        }
+        return terminal;
+    }
+
+    private void selectOnce() throws IOException {
+        selector.select(1000);
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Terminal terminal = (Terminal) key.attachment();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isConnectable()) {
+                try {
+                    terminal.channel.finishConnect();
+                    key.interestOps(SelectionKey.OP_READ);
+                    connected++;
+                } catch (IOException e) {
+                    failed++;
+                    key.cancel();
+                    terminal.channel.close();
+                }
+                continue;
+            }
+            if (key.isWritable()) {
+                terminal.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                terminal.read();
+            }
+        }
+    }
+
+    /**
+     * One simulated gate terminal: parks its vehicle, exits it, and repeats.
+     * A BUSY reply is retried.
+     */
+    private final class Terminal {
+        private final SocketChannel channel;
+        private final String parkCommand;
+        private final String exitCommand;
+        private final ByteBuffer input;
+        private final StringBuilder line;
+        private SelectionKey key;
+        private ByteBuffer output;
+        private boolean parking;
+        private int cyclesDone;
+        private long sentNanos;
+
+        private Terminal(int index, SocketChannel channel) {
+            this.channel = channel;
+            String gateId = GATE_IDS[index % GATE_IDS.length];
+            String plate = String.format("LOAD-%06d", index);
+            this.parkCommand = String.format("PARK %s %s %s CAR%n", LOT_ID, gateId, plate);
+            this.exitCommand = String.format("EXIT %s %s %s%n", LOT_ID, gateId, plate);
+            this.input = ByteBuffer.allocate(128);
+            this.line = new StringBuilder();
+        }
+
+        private void sendPark() throws IOException {
+            parking = true;
+            send(parkCommand);
+        }
+
+        private void send(String command) throws IOException {
+            output = ByteBuffer.wrap(command.getBytes(StandardCharsets.US_ASCII));
+            sentNanos = System.nanoTime();
+            flush();
+        }
+
+        private void flush() throws IOException {
+            channel.write(output);
+            key.interestOps(output.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                    : SelectionKey.OP_READ);
+        }
+
+        private void read() throws IOException {
+            input.clear();
+            if (channel.read(input) < 0) {
+                key.cancel();
+                finished++;
+                return;
+            }
+            input.flip();
+            while (input.hasRemaining()) {
+                char c = (char) input.get();
+                if (c != '\n') {
+                    line.append(c);
+                    continue;
+                }
+                latency.record(System.nanoTime() - sentNanos);
+                String reply = line.toString();
+                line.setLength(0);
+                int space = reply.indexOf(' ');
+                replyCounts.merge((parking ? "PARK " : "EXIT ") + (space < 0 ? reply : reply.substring(0, space)), 1,
+                        Integer::sum);
+                if (reply.equals("BUSY")) {
+                    // Shed by the server's admission limit; try again
+                    send(parking ? parkCommand : exitCommand);
+                } else if (parking && reply.startsWith("OK")) {
+                    parking = false;
+                    send(exitCommand);
+                } else if (++cyclesDone < cycles) {
+                    sendPark();
+                } else {
+                    finished++;
+                }
+            }
+        }
+    }
+
+    private static GateServer createServer(int port, int vehicles) throws IOException {
+        int floors = 4;
+        int spotsPerFloor = (vehicles + floors - 1) / floors;
+        ParkingLot parkingLot = new ParkingLot(LOT_ID, "Gate Load Test", "Load Test", floors);
+        for (String gateId : GATE_IDS) {
+            parkingLot.addEntryExitGate(new EntryExit(gateId, EntryExitType.BOTH));
+        }
+        for (int floor = 0; floor < floors; floor++) {
+            for (int i = 0; i < spotsPerFloor; i++) {
+                parkingLot.addParkingSpot(floor, new ParkingSpot(String.format("F%d-%05d", floor, i),
+                        SpotType.REGULAR, floor));
+            }
+        }
+        GateServer server = new GateServer(port, WORKER_THREADS);
+        server.addParkingLot(parkingLot, MAX_IN_FLIGHT);
+        server.start();
+        return server;
+    }
+}
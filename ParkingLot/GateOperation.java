@@ -0,0 +1,18 @@
+/**
+ * Enum representing the gate-side operations timed by ParkingMetrics
+ */
+public enum GateOperation {
+    PARK("Park"),
+    REMOVE("Remove"),
+    PAYMENT("Payment");
+
+    private final String displayName;
+
+    GateOperation(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,388 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded line-protocol server for gate terminals. One selector thread
+ * multiplexes every terminal connection, so idle terminals cost a buffer
+ * rather than a thread; commands run on a small worker pool. Each lot admits
+ * a bounded number of commands at a time and answers BUSY beyond that.
+ * Commands on one connection are answered one line each, in order:
+ * <pre>
+ * PARK lotId gateId plate vehicleType -> OK ticketId spotId | FULL
+ * EXIT lotId gateId plate             -> OK amount
+ * PAY lotId ticketId amount           -> OK | DECLINED
+ * LOCATE lotId plate                  -> OK spotId floor | NOT_FOUND
+ * STATUS lotId                        -> OK capacity occupied available activeTickets
+ * </pre>
+ * Any command may also be answered BUSY or ERR message. A connection whose
+ * client does not read its replies stops being read once its unsent replies
+ * pass a limit, and is read again as they drain.
+ */
+public class GateServer implements AutoCloseable {
+    private static final int MAX_LINE_BYTES = 256;
+    private static final int MAX_QUEUED_COMMANDS = 32; // Per connection, beyond the one in flight
+    private static final int MAX_PENDING_OUTPUT_BYTES = 16 * 1024; // Unsent replies before reading pauses
+    private static final int ACCEPT_BACKLOG = 1024;
+
+    private final Map<String, Site> sitesByLotId;
+    private final ExecutorService workers;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Connection> repliedConnections;
+    private final ByteBuffer readBuffer;
+    private final AtomicInteger connectionCount;
+    private final Thread selectorThread;
+    private volatile boolean running;
+
+    /**
+     * Binds the server to a local port (0 picks a free one); call start to
+     * begin serving
+     */
+    public GateServer(int port, int workerThreads) throws IOException {
+        this.sitesByLotId = new ConcurrentHashMap<>();
+        this.workers = Executors.newFixedThreadPool(workerThreads, new ThreadFactory() {
+            private int next;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "gate-server-worker-" + next++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.repliedConnections = new ConcurrentLinkedQueue<>();
+        this.readBuffer = ByteBuffer.allocateDirect(4096);
+        this.connectionCount = new AtomicInteger();
+        this.selectorThread = new Thread(this::serve, "gate-server-selector");
+        this.selectorThread.setDaemon(true);
+    }
+
+    /**
+     * Serves a lot, admitting at most maxInFlight of its commands at a time
+     */
+    public void addParkingLot(ParkingLot parkingLot, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Admission limit must be positive");
+        }
+        if (sitesByLotId.putIfAbsent(parkingLot.getParkingLotId(), new Site(parkingLot, maxInFlight)) != null) {
+            throw new IllegalArgumentException("Parking lot " + parkingLot.getParkingLotId() + " already exists");
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Gate server is already running");
+        }
+        running = true;
+        selectorThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of open terminal connections
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Stops accepting, closes every connection and stops the workers
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        workers.shutdown();
+    }
+
+    private void serve() {
+        while (running) {
+            try {
+                selector.select();
+                Connection replied;
+                while ((replied = repliedConnections.poll()) != null) {
+                    replied.deliverReplies();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.flush();
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Gate server selector failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connectionCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Runs one command against its lot; called on a worker thread
+     */
+    private static String execute(ParkingLot parkingLot, String[] words) {
+        try {
+            switch (words[0]) {
+                case "PARK": {
+                    expectWords(words, 5);
+                    VehicleType vehicleType = parseVehicleType(words[4]);
+                    Ticket ticket = parkingLot.parkVehicle(
+                            new Vehicle(words[3], vehicleType, "Unknown", "Gate " + words[2]), words[2]);
+                    return "OK " + ticket.getTicketId() + " " + ticket.getAssignedSpot().getSpotId();
+                }
+                case "EXIT": {
+                    expectWords(words, 4);
+                    double amount = parkingLot.removeVehicle(words[3], words[2]);
+                    return String.format(Locale.ROOT, "OK %.2f", amount);
+                }
+                case "PAY": {
+                    expectWords(words, 4);
+                    return parkingLot.processPayment(words[2], Double.parseDouble(words[3])) ? "OK" : "DECLINED";
+                }
+                case "LOCATE": {
+                    expectWords(words, 3);
+                    ParkingSpot spot = parkingLot.findVehicleLocation(words[2]);
+                    return spot != null ? "OK " + spot.getSpotId() + " " + spot.getFloor() : "NOT_FOUND";
+                }
+                case "STATUS": {
+                    expectWords(words, 2);
+                    // Reserved and out-of-order spots are neither occupied nor available
+                    int capacity = 0;
+                    int occupied = 0;
+                    int available = 0;
+                    for (int floorNum = 0; floorNum < parkingLot.getTotalFloors(); floorNum++) {
+                        Floor floor = parkingLot.getFloor(floorNum);
+                        capacity += floor.getTotalCapacity();
+                        occupied += floor.getOccupiedSpotCount();
+                        available += floor.getAvailableSpotCount();
+                    }
+                    return String.format("OK %d %d %d %d", capacity, occupied, available,
+                            parkingLot.getTicketManager().getActiveTicketCount());
+                }
+                default:
+                    return "ERR Unknown command " + words[0];
+            }
+        } catch (NoAvailableSpotException e) {
+            return "FULL";
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private static VehicleType parseVehicleType(String word) {
+        try {
+            return VehicleType.valueOf(word.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown vehicle type " + word);
+        }
+    }
+
+    private static void expectWords(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException(words[0] + " takes " + (count - 1) + " arguments");
+        }
+    }
+
+    private static final class Site {
+        private final ParkingLot parkingLot;
+        private final Semaphore admission;
+
+        private Site(ParkingLot parkingLot, int maxInFlight) {
+            this.parkingLot = parkingLot;
+            this.admission = new Semaphore(maxInFlight);
+        }
+    }
+
+    /**
+     * One terminal connection. Everything but the reply queue is only
+     * touched by the selector thread.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private byte[] line;
+        private int lineLength;
+        private final ArrayDeque<String> commands;
+        private final ArrayDeque<ByteBuffer> output;
+        private int outputBytes;
+        private final Queue<String> replies;
+        private boolean commandInFlight;
+        private boolean closed;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.line = new byte[32];
+            this.commands = new ArrayDeque<>(2);
+            this.output = new ArrayDeque<>(2);
+            this.replies = new ConcurrentLinkedQueue<>();
+        }
+
+        private void read() {
+            int bytesRead;
+            try {
+                readBuffer.clear();
+                bytesRead = channel.read(readBuffer);
+            } catch (IOException e) {
+                bytesRead = -1;
+            }
+            if (bytesRead < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                byte b = readBuffer.get();
+                if (b == '\n') {
+                    String command = new String(line, 0, lineLength, StandardCharsets.US_ASCII).trim();
+                    lineLength = 0;
+                    if (!command.isEmpty()) {
+                        commands.add(command);
+                    }
+                } else if (lineLength == MAX_LINE_BYTES || commands.size() > MAX_QUEUED_COMMANDS) {
+                    close(); // Misbehaving client
+                    return;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE_BYTES));
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+            dispatch();
+            flush();
+        }
+
+        /**
+         * Starts the next queued command unless one is still running
+         */
+        private void dispatch() {
+            String command;
+            while (!commandInFlight && (command = commands.poll()) != null) {
+                String[] words = command.split("\\s+");
+                words[0] = words[0].toUpperCase(Locale.ROOT);
+                Site site = words.length > 1 ? sitesByLotId.get(words[1]) : null;
+                if (site == null) {
+                    queueReply(words.length > 1 ? "ERR Unknown parking lot " + words[1] : "ERR Missing parking lot");
+                } else if (!site.admission.tryAcquire()) {
+                    queueReply("BUSY");
+                } else {
+                    commandInFlight = true;
+                    workers.execute(() -> {
+                        String reply;
+                        try {
+                            reply = execute(site.parkingLot, words);
+                        } catch (RuntimeException e) {
+                            reply = "ERR Internal error";
+                        } finally {
+                            site.admission.release();
+                        }
+                        replies.add(reply);
+                        repliedConnections.add(this);
+                        selector.wakeup();
+                    });
+                }
+            }
+        }
+
+        private void deliverReplies() {
+            String reply;
+            while ((reply = replies.poll()) != null) {
+                commandInFlight = false;
+                queueReply(reply);
+            }
+            if (!closed) {
+                dispatch();
+                flush();
+            }
+        }
+
+        private void queueReply(String reply) {
+            ByteBuffer buffer = ByteBuffer.wrap((reply.replace('\n', ' ') + "\n").getBytes(StandardCharsets.US_ASCII));
+            output.add(buffer);
+            outputBytes += buffer.remaining();
+        }
+
+        private void flush() {
+            if (closed) {
+                return;
+            }
+            try {
+                ByteBuffer head;
+                while ((head = output.peek()) != null) {
+                    outputBytes -= channel.write(head);
+                    if (head.hasRemaining()) {
+                        // Stop taking commands from a client that is not reading its replies
+                        key.interestOps(outputBytes < MAX_PENDING_OUTPUT_BYTES
+                                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    output.poll();
+                }
+                key.interestOps(SelectionKey.OP_READ);
+            } catch (IOException | CancelledKeyException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connectionCount.decrementAndGet();
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Number of overlapping holds at every minute of a fixed horizon, as a
+ * lazily built segment tree with range add and range max. Booking, releasing
+ * and asking for the busiest minute of a window are O(log horizon); nodes are
+ * only created where holds exist and dropped again once their counts return
+ * to zero. Not thread-safe.
+ */
+class HoldCountTree {
+    private final int depth;
+    private final Node root;
+
+    /**
+     * Covers slots 0 (inclusive) to 2^depth (exclusive)
+     */
+    HoldCountTree(int depth) {
+        this.depth = depth;
+        this.root = new Node();
+    }
+
+    /**
+     * Adds delta to every slot in [from, to)
+     */
+    void add(long from, long to, int delta) {
+        add(root, 0, 1L << depth, from, to, delta);
+    }
+
+    /**
+     * Gets the highest count of any slot in [from, to)
+     */
+    int max(long from, long to) {
+        return max(root, 0, 1L << depth, from, to);
+    }
+
+    private static void add(Node node, long nodeFrom, long nodeTo, long from, long to, int delta) {
+        if (from <= nodeFrom && nodeTo <= to) {
+            node.pending += delta;
+            node.max += delta;
+            node.min += delta;
+            return;
+        }
+        long middle = (nodeFrom + nodeTo) >>> 1;
+        if (from < middle) {
+            if (node.left == null) {
+                node.left = new Node();
+            }
+            add(node.left, nodeFrom, middle, from, to, delta);
+            if (node.left.isEmpty()) {
+                node.left = null;
+            }
+        }
+        if (to > middle) {
+            if (node.right == null) {
+                node.right = new Node();
+            }
+            add(node.right, middle, nodeTo, from, to, delta);
+            if (node.right.isEmpty()) {
+                node.right = null;
+            }
+        }
+        node.max = node.pending + Math.max(maxOf(node.left), maxOf(node.right));
+        node.min = node.pending + Math.min(minOf(node.left), minOf(node.right));
+    }
+
+    private static int max(Node node, long nodeFrom, long nodeTo, long from, long to) {
+        if (node == null) {
+            return 0;
+        }
+        if (from <= nodeFrom && nodeTo <= to) {
+            return node.max;
+        }
+        long middle = (nodeFrom + nodeTo) >>> 1;
+        int childMax = Integer.MIN_VALUE;
+        if (from < middle) {
+            childMax = Math.max(childMax, max(node.left, nodeFrom, middle, from, to));
+        }
+        if (to > middle) {
+            childMax = Math.max(childMax, max(node.right, middle, nodeTo, from, to));
+        }
+        return node.pending + childMax;
+    }
+
+    private static int maxOf(Node node) {
+        return node != null ? node.max : 0;
+    }
+
+    private static int minOf(Node node) {
+        return node != null ? node.min : 0;
+    }
+
+    private static final class Node {
+        private int pending; // Added to every slot below this node
+        private int max;
+        private int min;
+        private Node left;
+        private Node right;
+
+        /**
+         * A subtree whose slots are all zero carries no information
+         */
+        private boolean isEmpty() {
+            return max == 0 && min == 0;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in the style of HdrHistogram. Values (in
+ * nanoseconds) are counted in log-linear buckets: each power of two is split
+ * into 32 linear sub-buckets, so any recorded value is reported within about
+ * 3% while the whole range up to two minutes fits in about a thousand
+ * counters. Recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    private static final long MAX_TRACKABLE_NANOS = (1L << 37) - 1; // About 137 seconds
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount;
+    private final LongAdder totalNanos;
+    private final AtomicLong maxNanos;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new AtomicLong();
+    }
+
+    /**
+     * Records one value; values beyond the trackable range are counted in the
+     * top bucket
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, Math.min(nanos, MAX_TRACKABLE_NANOS));
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Adds every count from another histogram into this one
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalNanos.add(other.totalNanos.sum());
+        maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+    }
+
+    /**
+     * Gets the value below which the given percentage (0-100) of recorded
+     * values fall, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public double getMeanNanos() {
+        long count = totalCount.sum();
+        return count > 0 ? (double) totalNanos.sum() / count : 0.0;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.set(0L);
+    }
+
+    /**
+     * Bucket index of a value: values below SUB_BUCKET_COUNT map to
+     * themselves, larger ones keep their top SUB_BUCKET_BITS bits
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (int) (value >>> shift) - SUB_BUCKET_HALF;
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,82 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Load test for site sizing: simulates a day of traffic under each demand
+ * profile on one and several gate threads, then round-trips the event-day
+ * stream through a gate log and replays it.
+ * Usage: java LoadSimulationBenchmark [gate-log.csv [threads]] replays a
+ * recorded log instead.
+ */
+public class LoadSimulationBenchmark {
+    private static final int FLOORS = 3;
+    private static final int SPOTS_PER_FLOOR = 400;
+    private static final double BASE_ARRIVALS_PER_HOUR = 300;
+    private static final List<String> ENTRY_GATES = Arrays.asList("ENTRY-1", "ENTRY-2", "BOTH-1");
+    private static final List<String> EXIT_GATES = Arrays.asList("EXIT-1", "EXIT-2", "BOTH-1");
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== LOAD SIMULATION ===");
+        if (args.length > 0) {
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+            System.out.println("Replaying " + args[0] + " on " + threads + " thread(s)\n");
+            System.out.println(new LoadSimulator(createParkingLot()).replay(Paths.get(args[0]), threads));
+            return;
+        }
+        System.out.println(String.format("%d floors x %d spots, %d entry / %d exit gates, base %.0f arrivals/hour%n",
+                FLOORS, SPOTS_PER_FLOOR, ENTRY_GATES.size(), EXIT_GATES.size(), BASE_ARRIVALS_PER_HOUR));
+
+        LocalDateTime midnight = LocalDate.now().atStartOfDay();
+        List<GateEvent> eventDay = null;
+        for (DemandProfile profile : DemandProfile.values()) {
+            TrafficGenerator generator = new TrafficGenerator(ENTRY_GATES, EXIT_GATES, 42);
+            List<GateEvent> events = generator.generate(profile, BASE_ARRIVALS_PER_HOUR, midnight, Duration.ofDays(1));
+            if (profile == DemandProfile.EVENT_DAY) {
+                eventDay = events;
+            }
+            // The first run only warms up the JIT
+            new LoadSimulator(createParkingLot()).run(events);
+            for (int threads : new int[] { 1, 4 }) {
+                System.out.println(profile.getDisplayName() + ": "
+                        + new LoadSimulator(createParkingLot()).run(events, threads));
+            }
+            System.out.println();
+        }
+
+        Path gateLog = Files.createTempFile("gate-log", ".csv");
+        try {
+            LoadSimulator.writeGateLog(gateLog, eventDay);
+            System.out.println("Replayed event-day gate log: "
+                    + new LoadSimulator(createParkingLot()).replay(gateLog, 1));
+        } finally {
+            Files.deleteIfExists(gateLog);
+        }
+    }
+
+    private static ParkingLot createParkingLot() {
+        ParkingLot parkingLot = new ParkingLot("PL-SIM", "Simulated Site", "Load Test", FLOORS);
+        parkingLot.addEntryExitGate(new EntryExit("ENTRY-1", EntryExitType.ENTRY));
+        parkingLot.addEntryExitGate(new EntryExit("ENTRY-2", EntryExitType.ENTRY));
+        parkingLot.addEntryExitGate(new EntryExit("EXIT-1", EntryExitType.EXIT));
+        parkingLot.addEntryExitGate(new EntryExit("EXIT-2", EntryExitType.EXIT));
+        parkingLot.addEntryExitGate(new EntryExit("BOTH-1", EntryExitType.BOTH));
+        // 15% compact, 55% regular, 15% large, 5% handicapped, 10% electric
+        for (int floor = 0; floor < FLOORS; floor++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                int slot = i % 20;
+                SpotType spotType = slot < 3 ? SpotType.COMPACT
+                        : slot < 14 ? SpotType.REGULAR
+                        : slot < 17 ? SpotType.LARGE
+                        : slot < 18 ? SpotType.HANDICAPPED
+                        : SpotType.ELECTRIC;
+                parkingLot.addParkingSpot(floor, new ParkingSpot(String.format("F%d-%03d", floor, i), spotType, floor));
+            }
+        }
+        return parkingLot;
+    }
+}
@@ -0,0 +1,246 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a ParkingLot with a stream of gate events, generated by a
+ * TrafficGenerator or replayed from a recorded gate log, and reports
+ * throughput, rejections and latency percentiles.
+ * With several threads, events are partitioned by license plate so each
+ * vehicle's park, payment and exit still happen in order on one thread, and
+ * the threads advance through simulated time in lock-step windows so the
+ * lot's occupancy follows the event stream. Events run back to back unless a
+ * time scale is set.
+ */
+public class LoadSimulator {
+    private static final long WINDOW_MILLIS = 60_000L;
+
+    private final ParkingLot parkingLot;
+    private double timeScale;
+
+    public LoadSimulator(ParkingLot parkingLot) {
+        this.parkingLot = parkingLot;
+        this.timeScale = 0.0;
+    }
+
+    /**
+     * Paces events at the given number of simulated milliseconds per wall
+     * millisecond (60 plays an hour in a minute); 0 runs them as fast as
+     * possible
+     */
+    public void setTimeScale(double timeScale) {
+        if (timeScale < 0) {
+            throw new IllegalArgumentException("Time scale must not be negative");
+        }
+        this.timeScale = timeScale;
+    }
+
+    public SimulationReport run(List<GateEvent> events) {
+        return run(events, 1);
+    }
+
+    /**
+     * Runs the events against the lot on the given number of threads
+     */
+    public SimulationReport run(List<GateEvent> events, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        List<GateEvent> ordered = new ArrayList<>(events);
+        ordered.sort(Comparator.comparingLong(GateEvent::getTimeMillis));
+        long firstEventMillis = ordered.isEmpty() ? 0 : ordered.get(0).getTimeMillis();
+
+        List<List<GateEvent>> partitions = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (GateEvent event : ordered) {
+            partitions.get(Math.floorMod(event.getLicensePlate().hashCode(), threads)).add(event);
+        }
+
+        ParkingMetrics metrics = new ParkingMetrics();
+        AtomicLong skipped = new AtomicLong();
+        Phaser windows = new Phaser(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int next;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "load-simulator-" + next++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (List<GateEvent> partition : partitions) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                try {
+                    skipped.addAndGet(drive(partition, firstEventMillis, windows, metrics));
+                } finally {
+                    windows.arriveAndDeregister();
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return new SimulationReport(threads, ordered.size(), skipped.get(), elapsedNanos, metrics);
+    }
+
+    /**
+     * Replays a recorded gate log against the lot
+     */
+    public SimulationReport replay(Path gateLog, int threads) throws IOException {
+        return run(readGateLog(gateLog), threads);
+    }
+
+    /**
+     * Reads a gate log; blank lines and lines starting with # are ignored
+     */
+    public static List<GateEvent> readGateLog(Path gateLog) throws IOException {
+        List<GateEvent> events = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(gateLog, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    events.add(GateEvent.parse(line));
+                }
+            }
+        }
+        return events;
+    }
+
+    public static void writeGateLog(Path gateLog, List<GateEvent> events) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(gateLog, StandardCharsets.UTF_8)) {
+            writer.write("# epochMillis,operation,gateId,licensePlate,vehicleType");
+            writer.newLine();
+            for (GateEvent event : events) {
+                writer.write(event.toLogLine());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Runs one partition in order and returns how many events were skipped
+     * because their vehicle was never admitted
+     */
+    private long drive(List<GateEvent> events, long firstEventMillis, Phaser windows, ParkingMetrics metrics) {
+        Set<String> admitted = new HashSet<>();
+        long skipped = 0;
+        long window = 0;
+        long wallStartNanos = System.nanoTime();
+        for (GateEvent event : events) {
+            // Wait for the other threads to finish earlier windows
+            long eventWindow = (event.getTimeMillis() - firstEventMillis) / WINDOW_MILLIS;
+            for (; window < eventWindow; window++) {
+                windows.arriveAndAwaitAdvance();
+            }
+            if (timeScale > 0) {
+                long dueNanos = wallStartNanos
+                        + (long) ((event.getTimeMillis() - firstEventMillis) * 1_000_000 / timeScale);
+                long waitNanos;
+                while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+            }
+            switch (event.getOperation()) {
+                case PARK:
+                    if (park(event, metrics)) {
+                        admitted.add(event.getLicensePlate());
+                    }
+                    break;
+                case PAYMENT:
+                    if (admitted.contains(event.getLicensePlate())) {
+                        pay(event, metrics);
+                    } else {
+                        skipped++;
+                    }
+                    break;
+                case REMOVE:
+                    if (admitted.remove(event.getLicensePlate())) {
+                        remove(event, metrics);
+                    } else {
+                        skipped++;
+                    }
+                    break;
+            }
+        }
+        return skipped;
+    }
+
+    private boolean park(GateEvent event, ParkingMetrics metrics) {
+        Vehicle vehicle = new Vehicle(event.getLicensePlate(), event.getVehicleType(), "White", "Simulated");
+        ParkingMetrics.Outcome outcome = ParkingMetrics.Outcome.REJECTED;
+        long startNanos = System.nanoTime();
+        try {
+            parkingLot.parkVehicle(vehicle, event.getGateId());
+            outcome = ParkingMetrics.Outcome.SUCCESS;
+        } catch (NoAvailableSpotException e) {
+            outcome = ParkingMetrics.Outcome.NO_SPOT;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // Counted as rejected
+        }
+        record(metrics, event, outcome, System.nanoTime() - startNanos);
+        return outcome == ParkingMetrics.Outcome.SUCCESS;
+    }
+
+    private void pay(GateEvent event, ParkingMetrics metrics) {
+        // The driver is quoted the current fee and pays exactly that
+        TicketManager ticketManager = parkingLot.getTicketManager();
+        Ticket ticket = ticketManager.findTicketByVehicle(event.getLicensePlate());
+        if (ticket == null) {
+            record(metrics, event, ParkingMetrics.Outcome.REJECTED, 0);
+            return;
+        }
+        ParkingSpot spot = ticket.getAssignedSpot();
+        double quote = ticketManager.currentTariff().calculateFeeCents(spot.getFloor(),
+                ticket.getVehicle().getType(), spot.getSpotType(), ticket.getEntryEpochMillis(),
+                TariffEngine.toEpochMillis(LocalDateTime.now())) / 100.0;
+        long startNanos = System.nanoTime();
+        boolean paid = parkingLot.processPayment(ticket.getTicketId(), quote);
+        record(metrics, event, paid ? ParkingMetrics.Outcome.SUCCESS : ParkingMetrics.Outcome.REJECTED,
+                System.nanoTime() - startNanos);
+    }
+
+    private void remove(GateEvent event, ParkingMetrics metrics) {
+        ParkingMetrics.Outcome outcome = ParkingMetrics.Outcome.REJECTED;
+        long startNanos = System.nanoTime();
+        try {
+            parkingLot.removeVehicle(event.getLicensePlate(), event.getGateId());
+            outcome = ParkingMetrics.Outcome.SUCCESS;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // Counted as rejected
+        }
+        record(metrics, event, outcome, System.nanoTime() - startNanos);
+    }
+
+    private static void record(ParkingMetrics metrics, GateEvent event, ParkingMetrics.Outcome outcome,
+            long elapsedNanos) {
+        metrics.record(event.getOperation(), event.getGateId(), event.getVehicleType(), outcome, elapsedNanos);
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Default allocation: floors are tried from the ground floor upward and each
+ * floor hands out its first free spot of the most suitable type. Floors with
+ * nothing the vehicle fits in are skipped using the lot's availability
+ * summary.
+ */
+public class LowestFloorFirstStrategy implements SpotAllocationStrategy {
+
+    @Override
+    public ParkingSpot allocate(ParkingLot parkingLot, Vehicle vehicle, EntryExit entryGate) {
+        FloorAvailabilitySummary availability = parkingLot.getAvailabilitySummary();
+        SpotType[] preferredSpotTypes = vehicle.getPreferredSpotTypes();
+        // A floor may fill up between the lookup and the claim; move on to the next one
+        for (int floorNum = availability.nextFloorWithSpace(preferredSpotTypes, 0); floorNum >= 0;
+                floorNum = availability.nextFloorWithSpace(preferredSpotTypes, floorNum + 1)) {
+            ParkingSpot spot = parkingLot.getFloor(floorNum).parkVehicle(vehicle);
+            if (spot != null) {
+                return spot;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives each vehicle the free spot closest to the gate it entered through.
+ * Every gate keeps one min-heap of free spots per spot type, keyed by the
+ * distance from that gate, so the best spot is found by comparing a few heap
+ * heads and heaps are updated in O(log n) as spots are taken and freed.
+ * Spots are tracked by identity, since spots on different floors may share
+ * a spot ID.
+ */
+public class NearestToGateStrategy implements SpotAllocationStrategy {
+
+    /**
+     * Walking or driving distance from a gate to a spot; only the ordering
+     * matters
+     */
+    @FunctionalInterface
+    public interface DistanceFunction {
+        double distance(EntryExit gate, ParkingSpot spot);
+    }
+
+    private final DistanceFunction distanceFunction;
+    private final Map<String, EntryExit> gates;
+    private final Map<String, Map<SpotType, SpotHeap>> heapsByGate;
+    private final Set<ParkingSpot> spots;
+    private final SpotAllocationStrategy fallback;
+
+    public NearestToGateStrategy(DistanceFunction distanceFunction) {
+        this.distanceFunction = distanceFunction;
+        this.gates = new ConcurrentHashMap<>();
+        this.heapsByGate = new ConcurrentHashMap<>();
+        this.spots = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+        this.fallback = new LowestFloorFirstStrategy();
+    }
+
+    @Override
+    public ParkingSpot allocate(ParkingLot parkingLot, Vehicle vehicle, EntryExit entryGate) {
+        Map<SpotType, SpotHeap> heaps = heapsByGate.get(entryGate.getGateId());
+        if (heaps == null) {
+            return fallback.allocate(parkingLot, vehicle, entryGate);
+        }
+
+        SpotType[] preferredSpotTypes = vehicle.getPreferredSpotTypes();
+        while (true) {
+            // Nearest head across the compatible types; a less preferred type
+            // must be strictly closer to win
+            SpotHeap nearestHeap = null;
+            ParkingSpot nearest = null;
+            double nearestDistance = Double.MAX_VALUE;
+            for (SpotType spotType : preferredSpotTypes) {
+                SpotHeap heap = heaps.get(spotType);
+                synchronized (heap) {
+                    ParkingSpot head = heap.peek();
+                    if (head != null && heap.peekKey() < nearestDistance) {
+                        nearest = head;
+                        nearestDistance = heap.peekKey();
+                        nearestHeap = heap;
+                    }
+                }
+            }
+            if (nearest == null) {
+                return null;
+            }
+
+            Floor floor = parkingLot.getFloor(nearest.getFloor());
+            if (floor == null || floor.getSpot(nearest.getSpotId()) != nearest) {
+                // Removed from its floor since it was indexed
+                forgetSpot(nearest);
+            } else if (nearest.parkVehicle(vehicle)) {
+                return nearest;
+            } else {
+                // Lost to another gate; normally already dropped by the status
+                // callback
+                nearestHeap.remove(nearest);
+            }
+        }
+    }
+
+    @Override
+    public void onGateAdded(EntryExit gate) {
+        Map<SpotType, SpotHeap> heaps = new EnumMap<>(SpotType.class);
+        for (SpotType spotType : SpotType.values()) {
+            heaps.put(spotType, new SpotHeap());
+        }
+        gates.put(gate.getGateId(), gate);
+        heapsByGate.put(gate.getGateId(), heaps);
+        synchronized (spots) {
+            for (ParkingSpot spot : spots) {
+                if (spot.isAvailable()) {
+                    heaps.get(spot.getSpotType()).insert(spot, distanceFunction.distance(gate, spot));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onSpotAdded(ParkingSpot spot) {
+        spots.add(spot);
+        if (spot.isAvailable()) {
+            indexFreeSpot(spot);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(ParkingSpot spot, SpotStatus oldStatus, SpotStatus newStatus) {
+        if (newStatus == SpotStatus.AVAILABLE && spots.contains(spot)) {
+            indexFreeSpot(spot);
+        } else if (oldStatus == SpotStatus.AVAILABLE) {
+            for (Map<SpotType, SpotHeap> heaps : heapsByGate.values()) {
+                heaps.get(spot.getSpotType()).remove(spot);
+            }
+        }
+    }
+
+    private void indexFreeSpot(ParkingSpot spot) {
+        heapsByGate.forEach((gateId, heaps) -> heaps.get(spot.getSpotType()).insert(spot,
+                distanceFunction.distance(gates.get(gateId), spot)));
+    }
+
+    private void forgetSpot(ParkingSpot spot) {
+        spots.remove(spot);
+        for (Map<SpotType, SpotHeap> heaps : heapsByGate.values()) {
+            heaps.get(spot.getSpotType()).remove(spot);
+        }
+    }
+
+    /**
+     * Indexed binary min-heap of spots; the position map makes removal of an
+     * arbitrary spot O(log n)
+     */
+    private static final class SpotHeap {
+        private ParkingSpot[] heap = new ParkingSpot[16];
+        private double[] keys = new double[16];
+        private final Map<ParkingSpot, Integer> positions = new IdentityHashMap<>();
+        private int size;
+
+        synchronized ParkingSpot peek() {
+            return size > 0 ? heap[0] : null;
+        }
+
+        synchronized double peekKey() {
+            return size > 0 ? keys[0] : Double.MAX_VALUE;
+        }
+
+        synchronized void insert(ParkingSpot spot, double key) {
+            if (positions.containsKey(spot)) {
+                return;
+            }
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            place(spot, key, size++);
+            siftUp(size - 1);
+        }
+
+        synchronized void remove(ParkingSpot spot) {
+            Integer position = positions.remove(spot);
+            if (position == null) {
+                return;
+            }
+            int last = --size;
+            if (position != last) {
+                place(heap[last], keys[last], position);
+                siftDown(position);
+                siftUp(position);
+            }
+            heap[last] = null;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (keys[parent] <= keys[index]) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && keys[left] < keys[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && keys[right] < keys[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            ParkingSpot spotA = heap[a];
+            double keyA = keys[a];
+            place(heap[b], keys[b], a);
+            place(spotA, keyA, b);
+        }
+
+        private void place(ParkingSpot spot, double key, int index) {
+            heap[index] = spot;
+            keys[index] = key;
+            positions.put(spot, index);
+        }
+    }
+}
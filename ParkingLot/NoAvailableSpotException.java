@@ -0,0 +1,17 @@
+/**
+ * Thrown when a vehicle is turned away because no suitable spot is free
+ */
+public class NoAvailableSpotException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final VehicleType vehicleType;
+
+    public NoAvailableSpotException(VehicleType vehicleType) {
+        super("No available parking spot for " + vehicleType);
+        this.vehicleType = vehicleType;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+}
@@ -0,0 +1,367 @@
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * In-process time-series store of occupancy per floor and spot type, fed by
+ * the floors' spot status changes. Every series keeps fixed-size ring
+ * buffers at minute, quarter-hour and daily resolution in primitive arrays;
+ * each bucket holds the time-weighted average, minimum and maximum number of
+ * occupied spots, so short peaks between queries are never lost.
+ */
+public class OccupancyRecorder implements SpotStatusListener {
+
+    /**
+     * Bucket width and retained history of each ring buffer
+     */
+    public enum Resolution {
+        MINUTE("1-minute", 60_000L, 24 * 60),
+        QUARTER_HOUR("15-minute", 15 * 60_000L, 31 * 24 * 4),
+        DAY("daily", 24 * 60 * 60_000L, 400);
+
+        private final String displayName;
+        private final long bucketMillis;
+        private final int bucketCount;
+
+        Resolution(String displayName, long bucketMillis, int bucketCount) {
+            this.displayName = displayName;
+            this.bucketMillis = bucketMillis;
+            this.bucketCount = bucketCount;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public long getBucketMillis() {
+            return bucketMillis;
+        }
+
+        public int getBucketCount() {
+            return bucketCount;
+        }
+    }
+
+    private static final int MAGIC = 0x504C4F43; // "PLOC"
+    private static final int VERSION = 1;
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+    private static final SpotType[] SPOT_TYPES = SpotType.values();
+    private static final int SERIES_PER_FLOOR = SPOT_TYPES.length + 1; // Last: all types on the floor
+
+    private final ParkingLot parkingLot;
+    private final Series[] series;
+
+    /**
+     * Starts recording a lot's occupancy from its current state
+     */
+    public OccupancyRecorder(ParkingLot parkingLot) {
+        this.parkingLot = parkingLot;
+        this.series = new Series[parkingLot.getTotalFloors() * SERIES_PER_FLOOR];
+        long nowMillis = currentEpochMillis();
+        for (int floorNum = 0; floorNum < parkingLot.getTotalFloors(); floorNum++) {
+            Floor floor = parkingLot.getFloor(floorNum);
+            for (SpotType spotType : SPOT_TYPES) {
+                series[seriesIndex(floorNum, spotType)] = new Series(floor.getOccupiedSpotCount(spotType), nowMillis);
+            }
+            series[seriesIndex(floorNum, null)] = new Series(floor.getOccupiedSpotCount(), nowMillis);
+            floor.addStatusListener(this);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(ParkingSpot spot, SpotStatus oldStatus, SpotStatus newStatus) {
+        int delta = (newStatus == SpotStatus.OCCUPIED ? 1 : 0) - (oldStatus == SpotStatus.OCCUPIED ? 1 : 0);
+        if (delta != 0) {
+            record(spot.getFloor(), spot.getSpotType(), delta, currentEpochMillis());
+        }
+    }
+
+    void record(int floorNumber, SpotType spotType, int delta, long nowMillis) {
+        series[seriesIndex(floorNumber, spotType)].change(delta, nowMillis);
+        series[seriesIndex(floorNumber, null)].change(delta, nowMillis);
+    }
+
+    /**
+     * Gets the buckets of one floor between two times (end exclusive); a null
+     * spot type means all types on the floor. Only the retained history of the
+     * resolution can be returned.
+     */
+    public OccupancySeries query(int floorNumber, SpotType spotType, Resolution resolution, LocalDateTime from,
+            LocalDateTime to) {
+        return query(floorNumber, spotType, resolution, TariffEngine.toEpochMillis(from),
+                TariffEngine.toEpochMillis(to), currentEpochMillis());
+    }
+
+    OccupancySeries query(int floorNumber, SpotType spotType, Resolution resolution, long fromMillis, long toMillis,
+            long nowMillis) {
+        if (floorNumber < 0 || floorNumber >= parkingLot.getTotalFloors()) {
+            throw new IllegalArgumentException("Floor " + floorNumber + " does not exist");
+        }
+        Floor floor = parkingLot.getFloor(floorNumber);
+        int capacity = spotType != null ? floor.getTotalCapacity(spotType) : floor.getTotalCapacity();
+        return series[seriesIndex(floorNumber, spotType)].query(resolution, fromMillis, toMillis, nowMillis,
+                capacity);
+    }
+
+    /**
+     * Writes every retained bucket to a compact binary file: bucket numbers
+     * are delta-encoded and all values are variable-length integers
+     */
+    public void exportTo(Path file) throws IOException {
+        long nowMillis = currentEpochMillis();
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(parkingLot.getParkingLotId());
+            out.writeInt(parkingLot.getTotalFloors());
+            out.writeInt(SERIES_PER_FLOOR);
+            for (Series current : series) {
+                current.writeTo(out, nowMillis);
+            }
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Loads history exported earlier (for example before a restart); buckets
+     * already recorded since are kept
+     */
+    public void importFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an occupancy export: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported occupancy export version " + version);
+            }
+            String lotId = in.readUTF();
+            if (!lotId.equals(parkingLot.getParkingLotId()) || in.readInt() != parkingLot.getTotalFloors()
+                    || in.readInt() != SERIES_PER_FLOOR) {
+                throw new IOException("Occupancy export " + file + " was written for a different lot layout");
+            }
+            for (Series current : series) {
+                current.readFrom(in);
+            }
+        }
+    }
+
+    /**
+     * Wall-clock time on the same scale as ticket times, so daily buckets
+     * start at local midnight
+     */
+    private static long currentEpochMillis() {
+        return TariffEngine.toEpochMillis(LocalDateTime.now());
+    }
+
+    private static int seriesIndex(int floorNumber, SpotType spotType) {
+        return floorNumber * SERIES_PER_FLOOR + (spotType != null ? spotType.ordinal() : SPOT_TYPES.length);
+    }
+
+    /**
+     * Occupied count of one floor and spot type, with a ring per resolution
+     */
+    private static final class Series {
+        private final Ring[] rings;
+        private int occupied;
+        private long lastMillis;
+
+        private Series(int occupied, long nowMillis) {
+            this.rings = new Ring[RESOLUTIONS.length];
+            for (int i = 0; i < rings.length; i++) {
+                rings[i] = new Ring(RESOLUTIONS[i]);
+            }
+            this.occupied = occupied;
+            this.lastMillis = nowMillis;
+            for (Ring ring : rings) {
+                ring.touch(nowMillis, occupied);
+            }
+        }
+
+        synchronized void change(int delta, long nowMillis) {
+            advance(nowMillis);
+            occupied += delta;
+            for (Ring ring : rings) {
+                ring.touch(nowMillis, occupied);
+            }
+        }
+
+        synchronized OccupancySeries query(Resolution resolution, long fromMillis, long toMillis, long nowMillis,
+                int capacity) {
+            advance(nowMillis);
+            return rings[resolution.ordinal()].query(fromMillis, toMillis, capacity);
+        }
+
+        synchronized void writeTo(DataOutput out, long nowMillis) throws IOException {
+            advance(nowMillis);
+            for (Ring ring : rings) {
+                ring.writeTo(out);
+            }
+        }
+
+        synchronized void readFrom(DataInput in) throws IOException {
+            for (Ring ring : rings) {
+                ring.readFrom(in);
+            }
+        }
+
+        /**
+         * Credits the occupied count held since the last change to every
+         * bucket up to now
+         */
+        private void advance(long nowMillis) {
+            if (nowMillis > lastMillis) {
+                for (Ring ring : rings) {
+                    ring.accumulate(lastMillis, nowMillis, occupied);
+                }
+                lastMillis = nowMillis;
+            }
+        }
+    }
+
+    /**
+     * Fixed-size ring of buckets stored column-wise in primitive arrays. A
+     * slot is reused once its bucket number falls out of the window.
+     */
+    private static final class Ring {
+        private final Resolution resolution;
+        private final long[] bucketNumbers;
+        private final int[] minimums;
+        private final int[] maximums;
+        private final long[] occupiedMillis; // Occupied count integrated over time
+        private final int[] coveredMillis;
+
+        private Ring(Resolution resolution) {
+            this.resolution = resolution;
+            int bucketCount = resolution.getBucketCount();
+            this.bucketNumbers = new long[bucketCount];
+            this.minimums = new int[bucketCount];
+            this.maximums = new int[bucketCount];
+            this.occupiedMillis = new long[bucketCount];
+            this.coveredMillis = new int[bucketCount];
+            Arrays.fill(bucketNumbers, -1L);
+        }
+
+        /**
+         * Records that the count was observed at a point in time
+         */
+        private void touch(long atMillis, int count) {
+            int slot = slotFor(Math.floorDiv(atMillis, resolution.getBucketMillis()), count);
+            minimums[slot] = Math.min(minimums[slot], count);
+            maximums[slot] = Math.max(maximums[slot], count);
+        }
+
+        /**
+         * Adds a constant count held over [fromMillis, toMillis), split at
+         * bucket boundaries; time older than the ring's window is skipped
+         */
+        private void accumulate(long fromMillis, long toMillis, int count) {
+            long bucketMillis = resolution.getBucketMillis();
+            long start = Math.max(fromMillis, toMillis - bucketMillis * resolution.getBucketCount());
+            while (start < toMillis) {
+                long bucket = Math.floorDiv(start, bucketMillis);
+                long end = Math.min(toMillis, (bucket + 1) * bucketMillis);
+                int slot = slotFor(bucket, count);
+                occupiedMillis[slot] += count * (end - start);
+                coveredMillis[slot] += (int) (end - start);
+                minimums[slot] = Math.min(minimums[slot], count);
+                maximums[slot] = Math.max(maximums[slot], count);
+                start = end;
+            }
+        }
+
+        /**
+         * Gets the slot of a bucket, clearing it if it still holds an older one
+         */
+        private int slotFor(long bucket, int count) {
+            int slot = (int) Math.floorMod(bucket, (long) bucketNumbers.length);
+            if (bucketNumbers[slot] != bucket) {
+                bucketNumbers[slot] = bucket;
+                minimums[slot] = count;
+                maximums[slot] = count;
+                occupiedMillis[slot] = 0;
+                coveredMillis[slot] = 0;
+            }
+            return slot;
+        }
+
+        private OccupancySeries query(long fromMillis, long toMillis, int capacity) {
+            long bucketMillis = resolution.getBucketMillis();
+            long firstBucket = Math.floorDiv(fromMillis, bucketMillis);
+            long lastBucket = Math.floorDiv(toMillis - 1, bucketMillis);
+            firstBucket = Math.max(firstBucket, lastBucket - bucketNumbers.length + 1);
+            int maxPoints = (int) Math.max(0, lastBucket - firstBucket + 1);
+
+            long[] starts = new long[maxPoints];
+            double[] averages = new double[maxPoints];
+            int[] mins = new int[maxPoints];
+            int[] maxes = new int[maxPoints];
+            int points = 0;
+            for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+                int slot = (int) Math.floorMod(bucket, (long) bucketNumbers.length);
+                if (bucketNumbers[slot] != bucket) {
+                    continue;
+                }
+                starts[points] = bucket * bucketMillis;
+                averages[points] = coveredMillis[slot] > 0 ? (double) occupiedMillis[slot] / coveredMillis[slot]
+                        : minimums[slot];
+                mins[points] = minimums[slot];
+                maxes[points] = maximums[slot];
+                points++;
+            }
+            return new OccupancySeries(resolution, capacity, Arrays.copyOf(starts, points),
+                    Arrays.copyOf(averages, points), Arrays.copyOf(mins, points),
+                    Arrays.copyOf(maxes, points));
+        }
+
+        private void writeTo(DataOutput out) throws IOException {
+            long[] order = new long[bucketNumbers.length];
+            int used = 0;
+            for (long bucket : bucketNumbers) {
+                if (bucket >= 0) {
+                    order[used++] = bucket;
+                }
+            }
+            Arrays.sort(order, 0, used);
+            ParkingCodec.writeVarLong(out, used);
+            long previous = 0;
+            for (int i = 0; i < used; i++) {
+                int slot = (int) Math.floorMod(order[i], (long) bucketNumbers.length);
+                ParkingCodec.writeVarLong(out, order[i] - previous);
+                ParkingCodec.writeVarLong(out, minimums[slot]);
+                ParkingCodec.writeVarLong(out, maximums[slot]);
+                ParkingCodec.writeVarLong(out, coveredMillis[slot]);
+                ParkingCodec.writeVarLong(out, occupiedMillis[slot]);
+                previous = order[i];
+            }
+        }
+
+        private void readFrom(DataInput in) throws IOException {
+            long used = ParkingCodec.readVarLong(in);
+            long bucket = 0;
+            for (long i = 0; i < used; i++) {
+                bucket += ParkingCodec.readVarLong(in);
+                int minimum = (int) ParkingCodec.readVarLong(in);
+                int maximum = (int) ParkingCodec.readVarLong(in);
+                int covered = (int) ParkingCodec.readVarLong(in);
+                long occupied = ParkingCodec.readVarLong(in);
+                int slot = (int) Math.floorMod(bucket, (long) bucketNumbers.length);
+                if (bucketNumbers[slot] < bucket) {
+                    bucketNumbers[slot] = bucket;
+                    minimums[slot] = minimum;
+                    maximums[slot] = maximum;
+                    coveredMillis[slot] = covered;
+                    occupiedMillis[slot] = occupied;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Result of an occupancy query: one point per bucket that has data, holding
+ * the time-weighted average, minimum and maximum number of occupied spots
+ */
+public class OccupancySeries {
+    private final OccupancyRecorder.Resolution resolution;
+    private final int capacity;
+    private final long[] bucketStartMillis;
+    private final double[] averages;
+    private final int[] minimums;
+    private final int[] maximums;
+
+    OccupancySeries(OccupancyRecorder.Resolution resolution, int capacity, long[] bucketStartMillis,
+            double[] averages, int[] minimums, int[] maximums) {
+        this.resolution = resolution;
+        this.capacity = capacity;
+        this.bucketStartMillis = bucketStartMillis;
+        this.averages = averages;
+        this.minimums = minimums;
+        this.maximums = maximums;
+    }
+
+    public int size() {
+        return averages.length;
+    }
+
+    public LocalDateTime getBucketStart(int index) {
+        long millis = bucketStartMillis[index];
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), 0, ZoneOffset.UTC);
+    }
+
+    public double getAverage(int index) {
+        return averages[index];
+    }
+
+    public int getMinimum(int index) {
+        return minimums[index];
+    }
+
+    public int getMaximum(int index) {
+        return maximums[index];
+    }
+
+    /**
+     * Average occupancy of a bucket as a share of the spots in the series
+     */
+    public double getOccupancyRate(int index) {
+        return capacity > 0 ? averages[index] / capacity : 0.0;
+    }
+
+    /**
+     * Highest number of occupied spots seen anywhere in the range
+     */
+    public int getPeak() {
+        int peak = 0;
+        for (int maximum : maximums) {
+            peak = Math.max(peak, maximum);
+        }
+        return peak;
+    }
+
+    /**
+     * Mean of the bucket averages over the range
+     */
+    public double getMean() {
+        double sum = 0;
+        for (double average : averages) {
+            sum += average;
+        }
+        return averages.length > 0 ? sum / averages.length : 0.0;
+    }
+
+    /**
+     * Bucket average at the given percentile (0-100, nearest rank), for
+     * example the 95th percentile of 15-minute occupancy over a month
+     */
+    public double getPercentile(double percentile) {
+        if (averages.length == 0) {
+            return 0.0;
+        }
+        double[] sorted = averages.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public OccupancyRecorder.Resolution getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Spots in the series when it was queried
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d %s buckets - mean %.1f, p95 %.1f, peak %d of %d spots", size(),
+                resolution.getDisplayName(), getMean(), getPercentile(95.0), getPeak(), capacity);
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Point-in-time counters and latency percentiles for one gate operation,
+ * optionally narrowed to one gate and one vehicle type. Gate and vehicle type
+ * are null in per-operation totals and for calls that failed before they were
+ * known.
+ */
+public class OperationStats {
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final GateOperation operation;
+    private final String gateId;
+    private final VehicleType vehicleType;
+    private final long successCount;
+    private final long noSpotCount;
+    private final long rejectedCount;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    OperationStats(GateOperation operation, String gateId, VehicleType vehicleType, long successCount,
+            long noSpotCount, long rejectedCount, LatencyHistogram latency) {
+        this.operation = operation;
+        this.gateId = gateId;
+        this.vehicleType = vehicleType;
+        this.successCount = successCount;
+        this.noSpotCount = noSpotCount;
+        this.rejectedCount = rejectedCount;
+        this.meanMicros = latency.getMeanNanos() / NANOS_PER_MICRO;
+        this.p50Micros = latency.getValueAtPercentile(50.0) / NANOS_PER_MICRO;
+        this.p90Micros = latency.getValueAtPercentile(90.0) / NANOS_PER_MICRO;
+        this.p99Micros = latency.getValueAtPercentile(99.0) / NANOS_PER_MICRO;
+        this.p999Micros = latency.getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+        this.maxMicros = latency.getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    // Getters
+    public GateOperation getOperation() {
+        return operation;
+    }
+
+    public String getGateId() {
+        return gateId;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public long getCount() {
+        return successCount + noSpotCount + rejectedCount;
+    }
+
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    /**
+     * Parks turned away with "No available parking spot"
+     */
+    public long getNoSpotCount() {
+        return noSpotCount;
+    }
+
+    /**
+     * Calls that failed for any other reason (closed gate, unknown ticket,
+     * duplicate plate, short payment)
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s %-10s %-10s %8d calls (%d no spot, %d rejected) "
+                + "mean %.1fus p50 %.1fus p99 %.1fus p99.9 %.1fus max %.1fus",
+                operation.getDisplayName(), gateId != null ? gateId : "-",
+                vehicleType != null ? vehicleType : "-", getCount(), noSpotCount, rejectedCount,
+                meanMicros, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
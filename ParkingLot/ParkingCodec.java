@@ -0,0 +1,131 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Shared binary encoding for tickets, vehicles and timestamps, used by the
+ * ticket archive, the snapshot file and the write-ahead journal
+ */
+final class ParkingCodec {
+
+    private ParkingCodec() {
+    }
+
+    /**
+     * Writes a ticket together with its vehicle and the identity of its spot
+     */
+    static void writeTicket(DataOutput out, Ticket ticket) throws IOException {
+        ParkingSpot spot = ticket.getAssignedSpot();
+
+        out.writeUTF(ticket.getTicketId());
+        writeVehicle(out, ticket.getVehicle());
+        out.writeUTF(spot.getSpotId());
+        out.writeByte(spot.getSpotType().ordinal());
+        out.writeInt(spot.getFloor());
+        writeDateTime(out, ticket.getEntryTime());
+        out.writeUTF(ticket.getEntryGateId());
+        writeDateTime(out, ticket.getExitTime());
+        writeNullableString(out, ticket.getExitGateId());
+        out.writeDouble(ticket.getTotalAmount());
+        out.writeBoolean(ticket.isPaid());
+    }
+
+    /**
+     * Reads a ticket written by writeTicket. With a parking lot the ticket is
+     * bound to the lot's live spot; without one it gets a detached copy.
+     */
+    static Ticket readTicket(DataInput in, ParkingLot parkingLot) throws IOException {
+        String ticketId = in.readUTF();
+        Vehicle vehicle = readVehicle(in);
+        String spotId = in.readUTF();
+        SpotType spotType = SpotType.values()[in.readByte()];
+        int floor = in.readInt();
+        LocalDateTime entryTime = readDateTime(in);
+        String entryGateId = in.readUTF();
+        LocalDateTime exitTime = readDateTime(in);
+        String exitGateId = readNullableString(in);
+        double totalAmount = in.readDouble();
+        boolean isPaid = in.readBoolean();
+
+        ParkingSpot spot;
+        if (parkingLot != null) {
+            Floor lotFloor = parkingLot.getFloor(floor);
+            spot = lotFloor != null ? lotFloor.getSpot(spotId) : null;
+            if (spot == null) {
+                throw new IOException("Ticket " + ticketId + " refers to unknown spot " + spotId);
+            }
+        } else {
+            spot = new ParkingSpot(spotId, spotType, floor);
+        }
+        return new Ticket(ticketId, vehicle, spot, entryGateId, entryTime, exitTime, exitGateId, totalAmount,
+                isPaid);
+    }
+
+    static void writeVehicle(DataOutput out, Vehicle vehicle) throws IOException {
+        out.writeUTF(vehicle.getLicensePlate());
+        out.writeByte(vehicle.getType().ordinal());
+        writeNullableString(out, vehicle.getColor());
+        writeNullableString(out, vehicle.getOwnerName());
+    }
+
+    static Vehicle readVehicle(DataInput in) throws IOException {
+        String licensePlate = in.readUTF();
+        VehicleType vehicleType = VehicleType.values()[in.readByte()];
+        String color = readNullableString(in);
+        String ownerName = readNullableString(in);
+        return new Vehicle(licensePlate, vehicleType, color, ownerName);
+    }
+
+    static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+        out.writeBoolean(dateTime != null);
+        if (dateTime != null) {
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        }
+    }
+
+    static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = in.readLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC);
+    }
+
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Writes a non-negative value in 7-bit groups, so small values take one
+     * byte
+     */
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+}
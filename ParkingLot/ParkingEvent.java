@@ -0,0 +1,149 @@
+/**
+ * Record of a single change in a parking lot, published on the lot's
+ * ParkingEventFeed. All fields are fixed at construction except the
+ * sequence number, which the feed assigns on publish (it is -1 before);
+ * the event must not be changed after that. Fields that do not apply to an
+ * event type are null (or -1 for the floor).
+ */
+public class ParkingEvent {
+    private final ParkingEventType type;
+    private final long timestampMillis;
+    private final int floor;
+    private final String spotId;
+    private final SpotType spotType;
+    private final String ticketId;
+    private final String licensePlate;
+    private final VehicleType vehicleType;
+    private final String gateId;
+    private final double amount;
+    private final boolean gateOperational;
+    private long sequence;
+
+    private ParkingEvent(ParkingEventType type, int floor, String spotId, SpotType spotType, String ticketId,
+            String licensePlate, VehicleType vehicleType, String gateId, double amount, boolean gateOperational) {
+        this.type = type;
+        this.timestampMillis = System.currentTimeMillis();
+        this.floor = floor;
+        this.spotId = spotId;
+        this.spotType = spotType;
+        this.ticketId = ticketId;
+        this.licensePlate = licensePlate;
+        this.vehicleType = vehicleType;
+        this.gateId = gateId;
+        this.amount = amount;
+        this.gateOperational = gateOperational;
+        this.sequence = -1;
+    }
+
+    /**
+     * Creates the event for a spot status change
+     */
+    public static ParkingEvent spotStatusChanged(ParkingSpot spot, SpotStatus newStatus) {
+        ParkingEventType type;
+        switch (newStatus) {
+            case OCCUPIED:
+                type = ParkingEventType.SPOT_OCCUPIED;
+                break;
+            case AVAILABLE:
+                type = ParkingEventType.SPOT_FREED;
+                break;
+            default:
+                type = ParkingEventType.SPOT_UNAVAILABLE;
+                break;
+        }
+        Vehicle vehicle = spot.getParkedVehicle();
+        return new ParkingEvent(type, spot.getFloor(), spot.getSpotId(), spot.getSpotType(), null,
+                vehicle != null ? vehicle.getLicensePlate() : null, vehicle != null ? vehicle.getType() : null,
+                null, 0.0, false);
+    }
+
+    public static ParkingEvent ticketIssued(Ticket ticket) {
+        return forTicket(ParkingEventType.TICKET_ISSUED, ticket, ticket.getEntryGateId(), 0.0);
+    }
+
+    public static ParkingEvent ticketCompleted(Ticket ticket) {
+        return forTicket(ParkingEventType.TICKET_COMPLETED, ticket, ticket.getExitGateId(), ticket.getTotalAmount());
+    }
+
+    public static ParkingEvent paymentReceived(Ticket ticket, double amountPaid) {
+        return forTicket(ParkingEventType.PAYMENT_RECEIVED, ticket, null, amountPaid);
+    }
+
+    public static ParkingEvent gateStatusChanged(EntryExit gate) {
+        return new ParkingEvent(ParkingEventType.GATE_STATUS_CHANGED, -1, null, null, null, null, null,
+                gate.getGateId(), 0.0, gate.isOperational());
+    }
+
+    private static ParkingEvent forTicket(ParkingEventType type, Ticket ticket, String gateId, double amount) {
+        ParkingSpot spot = ticket.getAssignedSpot();
+        Vehicle vehicle = ticket.getVehicle();
+        return new ParkingEvent(type, spot.getFloor(), spot.getSpotId(), spot.getSpotType(), ticket.getTicketId(),
+                vehicle.getLicensePlate(), vehicle.getType(), gateId, amount, false);
+    }
+
+    /**
+     * Stamped by the feed when the event is published, before the event is
+     * written to the ring; subscribers see it through that volatile write
+     */
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ParkingEventType getType() {
+        return type;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public String getSpotId() {
+        return spotId;
+    }
+
+    public SpotType getSpotType() {
+        return spotType;
+    }
+
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public String getGateId() {
+        return gateId;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public boolean isGateOperational() {
+        return gateOperational;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Event#%d %s%s%s%s%s", sequence, type.getDisplayName(),
+                spotId != null ? " Spot:" + spotId : "",
+                ticketId != null ? " Ticket:" + ticketId : "",
+                licensePlate != null ? " Vehicle:" + licensePlate : "",
+                gateId != null ? " Gate:" + gateId : "");
+    }
+}
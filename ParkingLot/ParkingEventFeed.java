@@ -0,0 +1,117 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free publish/subscribe feed of parking events.
+ * Producers (gate threads) claim a sequence number and write into a ring
+ * buffer without ever waiting. Each subscriber reads at its own pace; a
+ * subscriber that falls more than one ring behind skips the overwritten
+ * events and counts them as dropped instead of holding producers back.
+ */
+public class ParkingEventFeed {
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final AtomicReferenceArray<ParkingEvent> ring;
+    private final int mask;
+    private final AtomicLong nextSequence;
+
+    public ParkingEventFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ParkingEventFeed(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Event feed capacity must be a power of two: " + capacity);
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.nextSequence = new AtomicLong(0);
+    }
+
+    /**
+     * Publishes an event; never blocks. A producer that stalled for a full
+     * lap finds its slot already holding a later event and drops its own,
+     * which subscribers then count as dropped.
+     */
+    public void publish(ParkingEvent event) {
+        long sequence = nextSequence.getAndIncrement();
+        event.setSequence(sequence);
+        int index = (int) (sequence & mask);
+        ParkingEvent current;
+        do {
+            current = ring.get(index);
+            if (current != null && current.getSequence() > sequence) {
+                return;
+            }
+        } while (!ring.compareAndSet(index, current, event));
+    }
+
+    /**
+     * Creates a subscription that receives events published from now on
+     */
+    public Subscription subscribe() {
+        return new Subscription(nextSequence.get());
+    }
+
+    public long getPublishedCount() {
+        return nextSequence.get();
+    }
+
+    public int getCapacity() {
+        return ring.length();
+    }
+
+    /**
+     * A single consumer's read position in the feed. Not thread-safe; each
+     * consumer thread should use its own subscription.
+     */
+    public class Subscription {
+        private long cursor;
+        private long droppedCount;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+            this.droppedCount = 0;
+        }
+
+        /**
+         * Delivers up to maxEvents pending events to the handler and returns how
+         * many were delivered
+         */
+        public int poll(Consumer<? super ParkingEvent> handler, int maxEvents) {
+            int delivered = 0;
+            while (delivered < maxEvents) {
+                ParkingEvent event = ring.get((int) (cursor & mask));
+                if (event == null || event.getSequence() < cursor) {
+                    break; // Not published yet
+                }
+                if (event.getSequence() > cursor) {
+                    // Lapped by producers: skip to the oldest event still in the ring
+                    long oldestRetained = Math.max(cursor + 1, nextSequence.get() - ring.length());
+                    droppedCount += oldestRetained - cursor;
+                    cursor = oldestRetained;
+                    continue;
+                }
+                handler.accept(event);
+                cursor++;
+                delivered++;
+            }
+            return delivered;
+        }
+
+        /**
+         * Number of events published but not yet read by this subscription
+         */
+        public long getLag() {
+            return nextSequence.get() - cursor;
+        }
+
+        /**
+         * Number of events this subscription missed because it fell behind
+         */
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Enum representing the kinds of events published on a parking lot's event
+ * feed
+ */
+public enum ParkingEventType {
+    SPOT_OCCUPIED("Spot Occupied"),
+    SPOT_FREED("Spot Freed"),
+    SPOT_UNAVAILABLE("Spot Unavailable"),
+    TICKET_ISSUED("Ticket Issued"),
+    TICKET_COMPLETED("Ticket Completed"),
+    PAYMENT_RECEIVED("Payment Received"),
+    GATE_STATUS_CHANGED("Gate Status Changed");
+
+    private final String displayName;
+
+    ParkingEventType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
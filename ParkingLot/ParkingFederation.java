@@ -0,0 +1,180 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Hosts many parking lots in one JVM. Each lot is a shard with its own
+ * ticket manager and its own single-threaded executor, so a busy site never
+ * queues behind another. Plates are indexed across sites, and federation-wide
+ * occupancy and revenue are aggregated with fork/join.
+ */
+public class ParkingFederation implements AutoCloseable {
+    private static final int LOTS_PER_TASK = 8;
+
+    private final Map<String, Shard> shardsByLotId;
+    private final List<Shard> shards;
+    private final Map<String, String> lotIdByPlate;
+    private final ForkJoinPool aggregationPool;
+
+    public ParkingFederation() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a federation whose aggregation queries use the given number of
+     * worker threads
+     */
+    public ParkingFederation(int aggregationParallelism) {
+        this.shardsByLotId = new ConcurrentHashMap<>();
+        this.shards = new CopyOnWriteArrayList<>();
+        this.lotIdByPlate = new ConcurrentHashMap<>();
+        this.aggregationPool = new ForkJoinPool(aggregationParallelism);
+    }
+
+    /**
+     * Adds a lot to the federation and starts its shard executor
+     */
+    public void addParkingLot(ParkingLot parkingLot) {
+        Shard shard = new Shard(parkingLot);
+        if (shardsByLotId.putIfAbsent(parkingLot.getParkingLotId(), shard) != null) {
+            shard.executor.shutdown();
+            throw new IllegalArgumentException("Parking lot " + parkingLot.getParkingLotId() + " already exists");
+        }
+        shards.add(shard);
+    }
+
+    /**
+     * Parks a vehicle at a site; the work runs on that site's executor
+     */
+    public CompletableFuture<Ticket> parkVehicle(String lotId, Vehicle vehicle, String entryGateId) {
+        return submit(lotId, parkingLot -> {
+            Ticket ticket = parkingLot.parkVehicle(vehicle, entryGateId);
+            lotIdByPlate.put(vehicle.getLicensePlate(), lotId);
+            return ticket;
+        });
+    }
+
+    /**
+     * Removes a vehicle from a site; completes with the amount due
+     */
+    public CompletableFuture<Double> removeVehicle(String lotId, String licensePlate, String exitGateId) {
+        return submit(lotId, parkingLot -> {
+            double amount = parkingLot.removeVehicle(licensePlate, exitGateId);
+            lotIdByPlate.remove(licensePlate, lotId);
+            return amount;
+        });
+    }
+
+    /**
+     * Runs an arbitrary operation against one lot on its shard executor
+     */
+    public <T> CompletableFuture<T> submit(String lotId, Function<ParkingLot, T> operation) {
+        Shard shard = shardsByLotId.get(lotId);
+        if (shard == null) {
+            throw new IllegalArgumentException("Parking lot " + lotId + " does not exist");
+        }
+        return CompletableFuture.supplyAsync(() -> operation.apply(shard.parkingLot), shard.executor);
+    }
+
+    /**
+     * Finds the lot currently holding a vehicle. Vehicles parked through the
+     * federation are found in O(1); others are found by asking every lot.
+     */
+    public ParkingLot findVehicleSite(String licensePlate) {
+        String lotId = lotIdByPlate.get(licensePlate);
+        if (lotId != null) {
+            Shard shard = shardsByLotId.get(lotId);
+            if (shard != null && shard.parkingLot.findVehicleLocation(licensePlate) != null) {
+                return shard.parkingLot;
+            }
+            lotIdByPlate.remove(licensePlate, lotId);
+        }
+        for (Shard shard : shards) {
+            if (shard.parkingLot.findVehicleLocation(licensePlate) != null) {
+                lotIdByPlate.put(licensePlate, shard.parkingLot.getParkingLotId());
+                return shard.parkingLot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Aggregates occupancy and revenue across all lots in parallel
+     */
+    public FederationSummary getSummary() {
+        List<Shard> snapshot = new ArrayList<>(shards);
+        return aggregationPool.invoke(new SummaryTask(snapshot, 0, snapshot.size()));
+    }
+
+    public ParkingLot getParkingLot(String lotId) {
+        Shard shard = shardsByLotId.get(lotId);
+        return shard != null ? shard.parkingLot : null;
+    }
+
+    public List<ParkingLot> getParkingLots() {
+        List<ParkingLot> parkingLots = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            parkingLots.add(shard.parkingLot);
+        }
+        return parkingLots;
+    }
+
+    /**
+     * Stops every shard executor and the aggregation pool
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        aggregationPool.shutdown();
+    }
+
+    private static final class Shard {
+        private final ParkingLot parkingLot;
+        private final ExecutorService executor;
+
+        private Shard(ParkingLot parkingLot) {
+            this.parkingLot = parkingLot;
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "shard-" + parkingLot.getParkingLotId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Splits the lot list in halves until a slice is small enough to sum
+     * directly
+     */
+    private static final class SummaryTask extends RecursiveTask<FederationSummary> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Shard> shards;
+        private final int from;
+        private final int to;
+
+        private SummaryTask(List<Shard> shards, int from, int to) {
+            this.shards = shards;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected FederationSummary compute() {
+            if (to - from <= LOTS_PER_TASK) {
+                FederationSummary summary = new FederationSummary();
+                for (int i = from; i < to; i++) {
+                    summary.merge(FederationSummary.of(shards.get(i).parkingLot));
+                }
+                return summary;
+            }
+            int middle = (from + to) >>> 1;
+            SummaryTask left = new SummaryTask(shards, from, middle);
+            left.fork();
+            FederationSummary right = new SummaryTask(shards, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+}
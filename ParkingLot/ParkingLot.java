@@ -1,31 +1,66 @@
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
  * Main ParkingLot class that orchestrates the entire parking system
- * Supports multiple floors with different vehicle types and pricing
+ * Supports multiple floors with different vehicle types and pricing.
+ * Entry and exit gates may call into the lot concurrently.
  */
 public class ParkingLot {
     private final String parkingLotId;
     private final String name;
     private final String address;
     private final Map<Integer, Floor> floors;
+    private final FloorAvailabilitySummary availabilitySummary;
     private final List<EntryExit> entryExitGates;
+    private final Map<String, EntryExit> gatesById;
     private final TicketManager ticketManager;
+    private final ParkingEventFeed eventFeed;
     private final int totalFloors;
+    private volatile ParkingLotJournal journal;
+    private volatile SpotAllocationStrategy allocationStrategy;
+    private volatile ParkingMetrics metrics;
 
     public ParkingLot(String parkingLotId, String name, String address, int totalFloors) {
+        this(parkingLotId, name, address, totalFloors, new TicketManager());
+    }
+
+    /**
+     * Creates a parking lot backed by a custom ticket manager (for example one
+     * that archives completed tickets to disk)
+     */
+    public ParkingLot(String parkingLotId, String name, String address, int totalFloors,
+            TicketManager ticketManager) {
         this.parkingLotId = parkingLotId;
         this.name = name;
         this.address = address;
         this.totalFloors = totalFloors;
         this.floors = new HashMap<>();
-        this.entryExitGates = new ArrayList<>();
-        this.ticketManager = new TicketManager();
+        this.availabilitySummary = new FloorAvailabilitySummary(totalFloors);
+        this.entryExitGates = new CopyOnWriteArrayList<>();
+        this.gatesById = new ConcurrentHashMap<>();
+        this.ticketManager = ticketManager;
+        this.eventFeed = new ParkingEventFeed();
+        this.allocationStrategy = new LowestFloorFirstStrategy();
 
         // Initialize floors
         for (int i = 0; i < totalFloors; i++) {
-            floors.put(i, new Floor(i));
+            Floor floor = new Floor(i, availabilitySummary);
+            floor.addStatusListener((spot, oldStatus, newStatus) -> {
+                allocationStrategy.onStatusChanged(spot, oldStatus, newStatus);
+                eventFeed.publish(ParkingEvent.spotStatusChanged(spot, newStatus));
+                // Occupancy changes are journaled with their tickets, and
+                // reservation holds are not persisted at all
+                ParkingLotJournal currentJournal = journal;
+                if (currentJournal != null && oldStatus != SpotStatus.OCCUPIED && newStatus != SpotStatus.OCCUPIED
+                        && !spot.isReservationHold()) {
+                    currentJournal.logSpotStatus(spot, newStatus);
+                }
+            });
+            floors.put(i, floor);
         }
     }
 
@@ -33,7 +68,11 @@ public class ParkingLot {
      * Adds entry/exit gates (typically on ground floor)
      */
     public void addEntryExitGate(EntryExit gate) {
+        if (gatesById.putIfAbsent(gate.getGateId(), gate) != null) {
+            throw new IllegalArgumentException("Gate " + gate.getGateId() + " already exists");
+        }
         entryExitGates.add(gate);
+        allocationStrategy.onGateAdded(gate);
     }
 
     /**
@@ -43,6 +82,7 @@ public class ParkingLot {
         Floor floor = floors.get(floorNumber);
         if (floor != null) {
             floor.addParkingSpot(spot);
+            allocationStrategy.onSpotAdded(spot);
         } else {
             throw new IllegalArgumentException("Floor " + floorNumber + " does not exist");
         }
@@ -52,6 +92,26 @@ public class ParkingLot {
      * Parks a vehicle in the parking lot
      */
     public Ticket parkVehicle(Vehicle vehicle, String entryGateId) {
+        ParkingMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            return admitVehicle(vehicle, entryGateId);
+        }
+        long startNanos = System.nanoTime();
+        ParkingMetrics.Outcome outcome = ParkingMetrics.Outcome.REJECTED;
+        try {
+            Ticket ticket = admitVehicle(vehicle, entryGateId);
+            outcome = ParkingMetrics.Outcome.SUCCESS;
+            return ticket;
+        } catch (NoAvailableSpotException e) {
+            outcome = ParkingMetrics.Outcome.NO_SPOT;
+            throw e;
+        } finally {
+            currentMetrics.record(GateOperation.PARK, knownGateId(entryGateId), vehicle.getType(), outcome,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    private Ticket admitVehicle(Vehicle vehicle, String entryGateId) {
         // Validate entry gate
         EntryExit entryGate = findGate(entryGateId);
         if (entryGate == null || !entryGate.canProcessEntry()) {
@@ -64,36 +124,209 @@ public class ParkingLot {
             throw new IllegalStateException("Vehicle " + vehicle.getLicensePlate() + " is already parked");
         }
 
-        // Find available parking spot
-        ParkingSpot availableSpot = findAvailableSpot(vehicle);
-        if (availableSpot == null) {
-            throw new IllegalStateException("No available parking spot for " + vehicle.getType());
+        // Claim an available parking spot
+        ParkingSpot assignedSpot = allocationStrategy.allocate(this, vehicle, entryGate);
+        if (assignedSpot == null) {
+            throw new NoAvailableSpotException(vehicle.getType());
         }
 
-        // Park the vehicle
-        if (availableSpot.parkVehicle(vehicle)) {
-            entryGate.recordVehiclePassage();
-            return ticketManager.generateTicket(vehicle, availableSpot, entryGateId);
+        return issueTicket(vehicle, assignedSpot, entryGate);
+    }
+
+    /**
+     * Parks a vehicle in the spot held for its reservation
+     */
+    Ticket parkReservedVehicle(Vehicle vehicle, ParkingSpot reservedSpot, String entryGateId) {
+        EntryExit entryGate = findGate(entryGateId);
+        if (entryGate == null || !entryGate.canProcessEntry()) {
+            throw new IllegalArgumentException("Invalid or non-operational entry gate: " + entryGateId);
+        }
+        if (ticketManager.findTicketByVehicle(vehicle.getLicensePlate()) != null) {
+            throw new IllegalStateException("Vehicle " + vehicle.getLicensePlate() + " is already parked");
+        }
+        if (!reservedSpot.parkReservedVehicle(vehicle, LocalDateTime.now())) {
+            throw new IllegalStateException("Spot " + reservedSpot.getSpotId() + " is not held for "
+                    + vehicle.getLicensePlate());
         }
+        return issueTicket(vehicle, reservedSpot, entryGate);
+    }
 
-        throw new IllegalStateException("Failed to park vehicle");
+    /**
+     * Issues the ticket for a vehicle that has claimed a spot, releasing the
+     * spot if another gate parked this vehicle first. The park is journaled
+     * before an exit can find the ticket, so replay never sees the exit first.
+     */
+    private Ticket issueTicket(Vehicle vehicle, ParkingSpot spot, EntryExit entryGate) {
+        Ticket ticket;
+        try {
+            ticket = ticketManager.generateTicket(vehicle, spot, entryGate.getGateId(), this::journalPark);
+        } catch (RuntimeException e) {
+            spot.removeVehicle();
+            throw e;
+        }
+        entryGate.recordVehiclePassage();
+        eventFeed.publish(ParkingEvent.ticketIssued(ticket));
+        return ticket;
+    }
+
+    /**
+     * Parks a batch of vehicles (convoys, bus-loads) through one entry gate.
+     * The gate is validated once and the floors are walked once for the whole
+     * batch. Results are returned in the order of the input list, each holding
+     * either a ticket or the reason the vehicle was turned away.
+     */
+    public List<ParkingResult> parkVehicles(List<Vehicle> vehicles, String entryGateId) {
+        ParkingMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            return admitVehicles(vehicles, entryGateId);
+        }
+        long startNanos = System.nanoTime();
+        List<ParkingResult> results = null;
+        try {
+            results = admitVehicles(vehicles, entryGateId);
+            return results;
+        } finally {
+            // One PARK per vehicle, each charged with its share of the batch's
+            // latency, so a convoy does not flood the histogram with its total
+            long elapsedNanos = (System.nanoTime() - startNanos) / Math.max(1, vehicles.size());
+            String gateId = knownGateId(entryGateId);
+            for (int i = 0; i < vehicles.size(); i++) {
+                ParkingMetrics.Outcome outcome = ParkingMetrics.Outcome.REJECTED;
+                if (results != null) {
+                    ParkingResult result = results.get(i);
+                    if (result.isSuccess()) {
+                        outcome = ParkingMetrics.Outcome.SUCCESS;
+                    } else if (result.isNoSpot()) {
+                        outcome = ParkingMetrics.Outcome.NO_SPOT;
+                    }
+                }
+                currentMetrics.record(GateOperation.PARK, gateId, vehicles.get(i).getType(), outcome, elapsedNanos);
+            }
+        }
+    }
+
+    private List<ParkingResult> admitVehicles(List<Vehicle> vehicles, String entryGateId) {
+        // Validate entry gate
+        EntryExit entryGate = findGate(entryGateId);
+        if (entryGate == null || !entryGate.canProcessEntry()) {
+            throw new IllegalArgumentException("Invalid or non-operational entry gate: " + entryGateId);
+        }
+
+        int batchSize = vehicles.size();
+        ParkingSpot[] assignedSpots = new ParkingSpot[batchSize];
+        String[] failureReasons = new String[batchSize];
+
+        // Reject vehicles that are already parked or repeated within the batch
+        Set<String> platesInBatch = new HashSet<>();
+        int pending = 0;
+        for (int i = 0; i < batchSize; i++) {
+            String licensePlate = vehicles.get(i).getLicensePlate();
+            if (!platesInBatch.add(licensePlate) || ticketManager.findTicketByVehicle(licensePlate) != null) {
+                failureReasons[i] = "Vehicle " + licensePlate + " is already parked";
+            } else {
+                pending++;
+            }
+        }
+
+        // Other strategies place each vehicle on its own
+        SpotAllocationStrategy strategy = allocationStrategy;
+        if (!(strategy instanceof LowestFloorFirstStrategy)) {
+            for (int i = 0; i < batchSize; i++) {
+                if (failureReasons[i] == null) {
+                    assignedSpots[i] = strategy.allocate(this, vehicles.get(i), entryGate);
+                }
+            }
+            pending = 0;
+        }
+
+        // Single pass over the floors that have free spots; once a floor has no
+        // room for a vehicle type it is not asked again for that type
+        for (int floorNum = availabilitySummary.nextFloorWithSpace(0); floorNum >= 0 && pending > 0;
+                floorNum = availabilitySummary.nextFloorWithSpace(floorNum + 1)) {
+            Floor floor = floors.get(floorNum);
+            boolean[] floorFullForType = new boolean[VehicleType.values().length];
+            for (int i = 0; i < batchSize && pending > 0 && floor.getAvailableSpotCount() > 0; i++) {
+                Vehicle vehicle = vehicles.get(i);
+                if (failureReasons[i] != null || assignedSpots[i] != null
+                        || floorFullForType[vehicle.getType().ordinal()]) {
+                    continue;
+                }
+                ParkingSpot spot = floor.parkVehicle(vehicle);
+                if (spot != null) {
+                    assignedSpots[i] = spot;
+                    pending--;
+                } else {
+                    floorFullForType[vehicle.getType().ordinal()] = true;
+                }
+            }
+        }
+
+        // Issue tickets for every vehicle that got a spot
+        List<ParkingResult> results = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Vehicle vehicle = vehicles.get(i);
+            if (failureReasons[i] != null) {
+                results.add(ParkingResult.failure(vehicle, failureReasons[i]));
+            } else if (assignedSpots[i] == null) {
+                results.add(ParkingResult.noSpot(vehicle));
+            } else {
+                Ticket ticket;
+                try {
+                    ticket = ticketManager.generateTicket(vehicle, assignedSpots[i], entryGateId, this::journalPark);
+                } catch (RuntimeException e) {
+                    assignedSpots[i].removeVehicle();
+                    if (!(e instanceof IllegalStateException)) {
+                        throw e;
+                    }
+                    results.add(ParkingResult.failure(vehicle, e.getMessage()));
+                    continue;
+                }
+                entryGate.recordVehiclePassage();
+                eventFeed.publish(ParkingEvent.ticketIssued(ticket));
+                results.add(ParkingResult.success(vehicle, ticket));
+            }
+        }
+        return results;
     }
 
     /**
      * Removes a vehicle from the parking lot
      */
     public double removeVehicle(String licensePlate, String exitGateId) {
+        ParkingMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            return exitVehicle(licensePlate, exitGateId).getTotalAmount();
+        }
+        long startNanos = System.nanoTime();
+        Ticket ticket = null;
+        try {
+            ticket = exitVehicle(licensePlate, exitGateId);
+            return ticket.getTotalAmount();
+        } finally {
+            currentMetrics.record(GateOperation.REMOVE, knownGateId(exitGateId),
+                    ticket != null ? ticket.getVehicle().getType() : null,
+                    ticket != null ? ParkingMetrics.Outcome.SUCCESS : ParkingMetrics.Outcome.REJECTED,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    private Ticket exitVehicle(String licensePlate, String exitGateId) {
         // Validate exit gate
         EntryExit exitGate = findGate(exitGateId);
         if (exitGate == null || !exitGate.canProcessExit()) {
             throw new IllegalArgumentException("Invalid or non-operational exit gate: " + exitGateId);
         }
 
-        // Find the ticket
+        // Find the ticket and complete the parking session; only one exit can
+        // complete a given ticket
+        // The exit is journaled before the plate and spot are freed, so a later
+        // park of either always follows it in the journal
         Ticket ticket = ticketManager.findTicketByVehicle(licensePlate);
-        if (ticket == null) {
+        if (ticket == null || ticketManager.completeParking(ticket.getTicketId(), exitGateId, LocalDateTime.now(),
+                null, this::journalExit) == null) {
             throw new IllegalArgumentException("No active parking session found for vehicle: " + licensePlate);
         }
+        eventFeed.publish(ParkingEvent.ticketCompleted(ticket));
 
         // Remove vehicle from spot
         ParkingSpot spot = ticket.getAssignedSpot();
@@ -101,44 +334,211 @@ public class ParkingLot {
         if (vehicle == null) {
             throw new IllegalStateException("Vehicle not found in assigned spot");
         }
-
-        // Complete parking session
-        ticketManager.completeParking(ticket.getTicketId(), exitGateId);
         exitGate.recordVehiclePassage();
 
-        return ticket.getTotalAmount();
+        return ticket;
     }
 
     /**
      * Processes payment for a parking ticket
      */
     public boolean processPayment(String ticketId, double amountPaid) {
-        return ticketManager.processPayment(ticketId, amountPaid);
+        ParkingMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            return settlePayment(ticketId, amountPaid);
+        }
+        long startNanos = System.nanoTime();
+        boolean paid = false;
+        try {
+            paid = settlePayment(ticketId, amountPaid);
+            return paid;
+        } finally {
+            // Attributed to the gate the vehicle left through, or entered by
+            // while it is still parked
+            Ticket ticket = ticketManager.getTicket(ticketId);
+            String gateId = null;
+            VehicleType vehicleType = null;
+            if (ticket != null) {
+                gateId = ticket.getExitGateId() != null ? ticket.getExitGateId() : ticket.getEntryGateId();
+                vehicleType = ticket.getVehicle().getType();
+            }
+            currentMetrics.record(GateOperation.PAYMENT, knownGateId(gateId), vehicleType,
+                    paid ? ParkingMetrics.Outcome.SUCCESS : ParkingMetrics.Outcome.REJECTED,
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    private boolean settlePayment(String ticketId, double amountPaid) {
+        boolean paid = ticketManager.processPayment(ticketId, amountPaid);
+        if (paid) {
+            Ticket ticket = ticketManager.getTicket(ticketId);
+            ParkingLotJournal currentJournal = journal;
+            if (currentJournal != null) {
+                currentJournal.logPayment(ticket);
+            }
+            eventFeed.publish(ParkingEvent.paymentReceived(ticket, amountPaid));
+        }
+        return paid;
     }
 
     /**
-     * Finds an available parking spot for a vehicle
+     * Opens or closes a gate and announces the change on the event feed
      */
-    private ParkingSpot findAvailableSpot(Vehicle vehicle) {
-        // Try each floor starting from ground floor
-        for (int floorNum = 0; floorNum < totalFloors; floorNum++) {
-            Floor floor = floors.get(floorNum);
-            ParkingSpot spot = floor.findAvailableSpot(vehicle);
-            if (spot != null) {
-                return spot;
+    public void setGateOperational(String gateId, boolean operational) {
+        EntryExit gate = findGate(gateId);
+        if (gate == null) {
+            throw new IllegalArgumentException("Gate " + gateId + " does not exist");
+        }
+        if (gate.isOperational() != operational) {
+            gate.setOperational(operational);
+            ParkingLotJournal currentJournal = journal;
+            if (currentJournal != null) {
+                currentJournal.logGateStatus(gateId, operational);
             }
+            eventFeed.publish(ParkingEvent.gateStatusChanged(gate));
         }
-        return null;
+    }
+
+    /**
+     * Attaches a write-ahead journal that records every state change from now
+     * on (null detaches it)
+     */
+    public void setJournal(ParkingLotJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Starts timing parkVehicle, removeVehicle and processPayment into the
+     * given metrics (null stops timing)
+     */
+    public void setMetrics(ParkingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ParkingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gate IDs the lot does not know are reported as unknown, so a client
+     * sending garbage cannot grow the metrics without bound
+     */
+    private String knownGateId(String gateId) {
+        return gateId != null && gatesById.containsKey(gateId) ? gateId : null;
+    }
+
+    private void journalExit(Ticket ticket) {
+        ParkingLotJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.logExit(ticket);
+        }
+    }
+
+    private void journalPark(Ticket ticket) {
+        ParkingLotJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.logPark(ticket, ticketManager.getNextTicketNumber());
+        }
+    }
+
+    /**
+     * Re-parks a vehicle from a snapshot or journal record. Tickets that are
+     * already active are skipped (returning false), so replaying a record
+     * twice is harmless.
+     */
+    boolean restorePark(Ticket ticket, LocalDateTime occupiedSince, int nextTicketNumber) {
+        ticketManager.advanceTicketNumber(nextTicketNumber);
+        if (ticketManager.findTicketByVehicle(ticket.getVehicle().getLicensePlate()) != null) {
+            return false;
+        }
+        ParkingSpot spot = ticket.getAssignedSpot();
+        LocalDateTime since = occupiedSince != null ? occupiedSince : ticket.getEntryTime();
+        // A reserved spot was claimed by the vehicle it was held for
+        if (!spot.parkVehicle(ticket.getVehicle(), since) && !spot.parkReservedVehicle(ticket.getVehicle(), since)) {
+            throw new IllegalStateException("Cannot restore ticket " + ticket.getTicketId() + ": spot "
+                    + spot.getSpotId() + " is " + spot.getStatus());
+        }
+        ticketManager.restoreActiveTicket(ticket);
+        return true;
+    }
+
+    /**
+     * Replays an exit, charging the recorded amount if there is one; returns
+     * false if the ticket is not active
+     */
+    boolean restoreExit(String ticketId, String exitGateId, LocalDateTime exitTime, Double chargedAmount) {
+        Ticket ticket = ticketManager.completeParking(ticketId, exitGateId, exitTime, chargedAmount);
+        if (ticket == null) {
+            return false;
+        }
+        ticket.getAssignedSpot().removeVehicle();
+        return true;
+    }
+
+    /**
+     * Counts a replayed passage through a gate
+     */
+    void restoreGatePassage(String gateId) {
+        EntryExit gate = findGate(gateId);
+        if (gate != null) {
+            gate.recordVehiclePassage();
+        }
+    }
+
+    void restorePayment(String ticketId, double amountPaid) {
+        ticketManager.restorePayment(ticketId, amountPaid);
+    }
+
+    /**
+     * Applies a recorded non-occupancy status change (reserved, out of order,
+     * available) to a spot
+     */
+    void restoreSpotStatus(int floorNumber, String spotId, SpotStatus status) {
+        Floor floor = floors.get(floorNumber);
+        ParkingSpot spot = floor != null ? floor.getSpot(spotId) : null;
+        if (spot == null) {
+            throw new IllegalArgumentException("Spot " + spotId + " does not exist on floor " + floorNumber);
+        }
+        switch (status) {
+            case AVAILABLE:
+                spot.markAvailable();
+                break;
+            case RESERVED:
+                spot.reserve();
+                break;
+            case OUT_OF_ORDER:
+                spot.markOutOfOrder();
+                break;
+            default:
+                break; // Occupancy is restored through tickets
+        }
+    }
+
+    /**
+     * Replaces the spot allocation strategy. The new strategy is told about
+     * every existing gate and spot before it starts serving entries.
+     */
+    public void setAllocationStrategy(SpotAllocationStrategy strategy) {
+        for (EntryExit gate : entryExitGates) {
+            strategy.onGateAdded(gate);
+        }
+        for (Floor floor : floors.values()) {
+            for (ParkingSpot spot : floor.getAllSpots()) {
+                strategy.onSpotAdded(spot);
+            }
+        }
+        this.allocationStrategy = strategy;
+    }
+
+    public SpotAllocationStrategy getAllocationStrategy() {
+        return allocationStrategy;
     }
 
     /**
      * Finds a gate by ID
      */
     private EntryExit findGate(String gateId) {
-        return entryExitGates.stream()
-                .filter(gate -> gate.getGateId().equals(gateId))
-                .findFirst()
-                .orElse(null);
+        return gateId != null ? gatesById.get(gateId) : null;
     }
 
     /**
@@ -191,23 +591,11 @@ public class ParkingLot {
     }
 
     /**
-     * Gets available spots by type across all floors
+     * Gets available spots by type across all floors, from the lot-level
+     * summary
      */
     public Map<SpotType, Integer> getAvailableSpotsByType() {
-        Map<SpotType, Integer> totalAvailable = new EnumMap<>(SpotType.class);
-
-        // Initialize counts
-        for (SpotType type : SpotType.values()) {
-            totalAvailable.put(type, 0);
-        }
-
-        // Sum up from all floors
-        floors.values().forEach(floor -> {
-            Map<SpotType, Integer> floorAvailable = floor.getAvailableSpotsByType();
-            floorAvailable.forEach((type, count) -> totalAvailable.put(type, totalAvailable.get(type) + count));
-        });
-
-        return totalAvailable;
+        return availabilitySummary.getAvailableSpotsByType();
     }
 
     /**
@@ -224,12 +612,8 @@ public class ParkingLot {
      * Finds vehicle location by license plate
      */
     public ParkingSpot findVehicleLocation(String licensePlate) {
-        return floors.values().stream()
-                .flatMap(floor -> floor.getAllSpots().stream())
-                .filter(spot -> spot.getParkedVehicle() != null &&
-                        spot.getParkedVehicle().getLicensePlate().equals(licensePlate))
-                .findFirst()
-                .orElse(null);
+        Ticket ticket = ticketManager.findTicketByVehicle(licensePlate);
+        return ticket != null ? ticket.getAssignedSpot() : null;
     }
 
     // Getters
@@ -249,6 +633,10 @@ public class ParkingLot {
         return floors.get(floorNumber);
     }
 
+    public FloorAvailabilitySummary getAvailabilitySummary() {
+        return availabilitySummary;
+    }
+
     public List<EntryExit> getEntryExitGates() {
         return new ArrayList<>(entryExitGates);
     }
@@ -257,6 +645,14 @@ public class ParkingLot {
         return ticketManager;
     }
 
+    public ParkingEventFeed getEventFeed() {
+        return eventFeed;
+    }
+
+    public ParkingLotJournal getJournal() {
+        return journal;
+    }
+
     public int getTotalFloors() {
         return totalFloors;
     }
@@ -0,0 +1,314 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of parking lot mutations since the last snapshot.
+ * Records are appended as [length][crc][type][payload]; their sequence numbers
+ * are implicit, counting up from a base stored in the file header. A record
+ * torn by a crash fails its length or checksum test and is cut off on open.
+ */
+public class ParkingLotJournal implements Closeable {
+    static final byte PARK = 1;
+    static final byte PAYMENT = 3;
+    static final byte SPOT_STATUS = 4;
+    static final byte GATE_STATUS = 5;
+    static final byte CHARGED_EXIT = 6; // EXIT plus the amount charged
+
+    private static final int MAGIC = 0x504C4A4E; // "PLJN"
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path file;
+    private final boolean syncEachRecord;
+    private FileChannel channel;
+    private long baseSequence;
+    private long recordCount;
+    private long writePosition;
+
+    /**
+     * Opens (or creates) the journal. With syncEachRecord every append is
+     * forced to disk before it returns; otherwise the OS decides when.
+     */
+    public ParkingLotJournal(Path file, boolean syncEachRecord) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.syncEachRecord = syncEachRecord;
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader(0);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a parking lot journal: " + file);
+            }
+            this.baseSequence = header.getLong();
+        }
+        scanRecords(null);
+    }
+
+    /**
+     * Sequence number the next appended record will receive
+     */
+    public synchronized long getSequence() {
+        return baseSequence + recordCount;
+    }
+
+    /**
+     * Drops the records below upToSequence, keeping those appended since;
+     * called with a snapshot's sequence once that snapshot is safely on disk.
+     * The kept records are copied to a new file that replaces the journal
+     * atomically, so a crash leaves either the old journal or the new one.
+     */
+    public synchronized void truncate(long upToSequence) throws IOException {
+        long sequence = baseSequence + recordCount;
+        if (upToSequence < baseSequence || upToSequence > sequence) {
+            throw new IllegalArgumentException(String.format("Sequence %d is outside the journal (%d to %d)",
+                    upToSequence, baseSequence, sequence));
+        }
+        long keepFrom = positionOf(upToSequence);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putLong(upToSequence).flip();
+            while (header.hasRemaining()) {
+                target.write(header);
+            }
+            long copied = 0;
+            while (copied < writePosition - keepFrom) {
+                copied += channel.transferTo(keepFrom + copied, writePosition - keepFrom - copied, target);
+            }
+            target.force(true);
+        }
+        channel.close();
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.baseSequence = upToSequence;
+        this.recordCount = sequence - upToSequence;
+        this.writePosition = HEADER_SIZE + writePosition - keepFrom;
+    }
+
+    /**
+     * Replays the records with a sequence number at or above fromSequence
+     * against the lot. The lot must not have this journal attached while
+     * replaying.
+     */
+    public synchronized void replay(ParkingLot parkingLot, long fromSequence) throws IOException {
+        if (fromSequence < baseSequence) {
+            throw new IOException(String.format("Journal starts at sequence %d but replay needs %d",
+                    baseSequence, fromSequence));
+        }
+        scanRecords((sequence, type, in) -> {
+            if (sequence >= fromSequence) {
+                apply(parkingLot, type, in);
+            }
+        });
+    }
+
+    void logPark(Ticket ticket, int nextTicketNumber) {
+        append(PARK, out -> {
+            ParkingCodec.writeTicket(out, ticket);
+            ParkingCodec.writeDateTime(out, ticket.getAssignedSpot().getOccupiedSince());
+            out.writeInt(nextTicketNumber);
+        });
+    }
+
+    /**
+     * Logs an exit with the amount charged, so a replay does not re-price the
+     * stay with whatever surge rates apply at restart
+     */
+    void logExit(Ticket ticket) {
+        append(CHARGED_EXIT, out -> {
+            out.writeUTF(ticket.getTicketId());
+            out.writeUTF(ticket.getExitGateId());
+            ParkingCodec.writeDateTime(out, ticket.getExitTime());
+            out.writeDouble(ticket.getTotalAmount());
+        });
+    }
+
+    void logPayment(Ticket ticket) {
+        append(PAYMENT, out -> {
+            out.writeUTF(ticket.getTicketId());
+            out.writeDouble(ticket.getAmountPaid());
+        });
+    }
+
+    void logSpotStatus(ParkingSpot spot, SpotStatus newStatus) {
+        append(SPOT_STATUS, out -> {
+            out.writeInt(spot.getFloor());
+            out.writeUTF(spot.getSpotId());
+            out.writeByte(newStatus.ordinal());
+        });
+    }
+
+    void logGateStatus(String gateId, boolean operational) {
+        append(GATE_STATUS, out -> {
+            out.writeUTF(gateId);
+            out.writeBoolean(operational);
+        });
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private interface PayloadWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private interface RecordVisitor {
+        void visit(long sequence, byte type, DataInput in) throws IOException;
+    }
+
+    private synchronized void append(byte type, PayloadWriter payloadWriter) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            payloadWriter.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + record.length);
+        buffer.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+        try {
+            while (buffer.hasRemaining()) {
+                writePosition += channel.write(buffer, writePosition);
+            }
+            if (syncEachRecord) {
+                channel.force(false);
+            }
+            recordCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write journal record " + getSequence(), e);
+        }
+    }
+
+    /**
+     * Walks the intact records from the start, handing each to the visitor,
+     * and cuts off anything after the last intact record
+     */
+    private void scanRecords(RecordVisitor visitor) throws IOException {
+        long fileSize = channel.size();
+        long position = HEADER_SIZE;
+        long count = 0;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= fileSize) {
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            recordHeader.flip();
+            int length = recordHeader.getInt();
+            int checksum = recordHeader.getInt();
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > fileSize) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(record, position + RECORD_HEADER_SIZE);
+            crc.reset();
+            crc.update(record.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            if (visitor != null) {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.array()));
+                visitor.visit(baseSequence + count, in.readByte(), in);
+            }
+            position += RECORD_HEADER_SIZE + length;
+            count++;
+        }
+        if (position < fileSize) {
+            channel.truncate(position); // Torn write at the tail
+        }
+        this.recordCount = count;
+        this.writePosition = position;
+    }
+
+    private static void apply(ParkingLot parkingLot, byte type, DataInput in) throws IOException {
+        switch (type) {
+            case PARK: {
+                Ticket ticket = ParkingCodec.readTicket(in, parkingLot);
+                LocalDateTime occupiedSince = ParkingCodec.readDateTime(in);
+                if (parkingLot.restorePark(ticket, occupiedSince, in.readInt())) {
+                    parkingLot.restoreGatePassage(ticket.getEntryGateId());
+                }
+                break;
+            }
+            case CHARGED_EXIT: {
+                // Exits are journaled while the park is still active, so the
+                // matching park has always been replayed or restored already
+                String ticketId = in.readUTF();
+                String exitGateId = in.readUTF();
+                LocalDateTime exitTime = ParkingCodec.readDateTime(in);
+                if (parkingLot.restoreExit(ticketId, exitGateId, exitTime, in.readDouble())) {
+                    parkingLot.restoreGatePassage(exitGateId);
+                }
+                break;
+            }
+            case PAYMENT:
+                parkingLot.restorePayment(in.readUTF(), in.readDouble());
+                break;
+            case SPOT_STATUS: {
+                int floor = in.readInt();
+                String spotId = in.readUTF();
+                parkingLot.restoreSpotStatus(floor, spotId, SpotStatus.values()[in.readByte()]);
+                break;
+            }
+            case GATE_STATUS:
+                parkingLot.setGateOperational(in.readUTF(), in.readBoolean());
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    /**
+     * File position of the record with the given sequence, or the end of the
+     * journal for the next sequence
+     */
+    private long positionOf(long sequence) throws IOException {
+        long position = HEADER_SIZE;
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        for (long current = baseSequence; current < sequence; current++) {
+            length.clear();
+            readFully(length, position);
+            length.flip();
+            position += RECORD_HEADER_SIZE + length.getInt();
+        }
+        return position;
+    }
+
+    private void writeHeader(long sequence) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putLong(sequence).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        this.baseSequence = sequence;
+        this.recordCount = 0;
+        this.writePosition = HEADER_SIZE;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of journal");
+            }
+        }
+    }
+}
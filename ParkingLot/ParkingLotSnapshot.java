@@ -0,0 +1,198 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary point-in-time image of a parking lot: layout, spot and gate status,
+ * counters and tickets. Together with a ParkingLotJournal it lets a lot
+ * restart by loading the latest snapshot and replaying only the journal
+ * records written after it.
+ */
+public final class ParkingLotSnapshot {
+    private static final int MAGIC = 0x504C534E; // "PLSN"
+    private static final int VERSION = 1;
+
+    private ParkingLotSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the lot, replacing the file atomically. Take it at
+     * a quiescent point (no gate calls in flight); records journaled while it
+     * is written may otherwise be both in the image and replayed after it.
+     */
+    public static void write(ParkingLot parkingLot, Path file) throws IOException {
+        writeFile(parkingLot, file);
+    }
+
+    /**
+     * Writes a snapshot and then drops the journal records it covers. Records
+     * journaled while the snapshot was being written stay in the journal.
+     */
+    public static void checkpoint(ParkingLot parkingLot, Path file) throws IOException {
+        long journalSequence = writeFile(parkingLot, file);
+        ParkingLotJournal journal = parkingLot.getJournal();
+        if (journal != null) {
+            journal.truncate(journalSequence);
+        }
+    }
+
+    /**
+     * Writes the snapshot file and returns the journal sequence it starts
+     * replaying from
+     */
+    private static long writeFile(ParkingLot parkingLot, Path file) throws IOException {
+        long journalSequence;
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024))) {
+            journalSequence = writeTo(parkingLot, out);
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return journalSequence;
+    }
+
+    public static ParkingLot restore(Path file, ParkingLotJournal journal) throws IOException {
+        return restore(file, journal, new TicketManager());
+    }
+
+    /**
+     * Rebuilds a lot from a snapshot, replays the journal records written
+     * after it and attaches the journal to the restored lot. The journal may
+     * be null to load the snapshot alone.
+     */
+    public static ParkingLot restore(Path file, ParkingLotJournal journal, TicketManager ticketManager)
+            throws IOException {
+        ParkingLot parkingLot;
+        long journalSequence;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a parking lot snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            parkingLot = new ParkingLot(in.readUTF(), in.readUTF(), in.readUTF(), in.readInt(), ticketManager);
+            journalSequence = in.readLong();
+            readFrom(parkingLot, in);
+        }
+
+        if (journal != null) {
+            journal.replay(parkingLot, journalSequence);
+            parkingLot.setJournal(journal);
+        }
+        return parkingLot;
+    }
+
+    private static long writeTo(ParkingLot parkingLot, DataOutputStream out) throws IOException {
+        TicketManager ticketManager = parkingLot.getTicketManager();
+        ParkingLotJournal journal = parkingLot.getJournal();
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(parkingLot.getParkingLotId());
+        out.writeUTF(parkingLot.getName());
+        out.writeUTF(parkingLot.getAddress());
+        out.writeInt(parkingLot.getTotalFloors());
+        long journalSequence = journal != null ? journal.getSequence() : 0;
+        out.writeLong(journalSequence);
+
+        // Counters
+        out.writeInt(ticketManager.getNextTicketNumber());
+        out.writeLong(ticketManager.getCompletedTicketCount());
+        Map<String, Double> revenueStats = ticketManager.getRevenueStats();
+        out.writeDouble(revenueStats.get("totalRevenue"));
+        out.writeDouble(revenueStats.get("evChargingRevenue"));
+
+        // Gates
+        List<EntryExit> gates = parkingLot.getEntryExitGates();
+        out.writeInt(gates.size());
+        for (EntryExit gate : gates) {
+            out.writeUTF(gate.getGateId());
+            out.writeByte(gate.getType().ordinal());
+            out.writeBoolean(gate.isOperational());
+            out.writeLong(gate.getVehicleCount());
+        }
+
+        // Spots; occupied ones are written as available and re-occupied by
+        // their tickets, and reservation holds are written as available
+        for (int floorNum = 0; floorNum < parkingLot.getTotalFloors(); floorNum++) {
+            List<ParkingSpot> spots = new ArrayList<>(parkingLot.getFloor(floorNum).getAllSpots());
+            out.writeInt(spots.size());
+            for (ParkingSpot spot : spots) {
+                SpotStatus status = spot.getStatus();
+                out.writeUTF(spot.getSpotId());
+                out.writeByte(spot.getSpotType().ordinal());
+                boolean free = status == SpotStatus.OCCUPIED || spot.isReservationHold();
+                out.writeByte((free ? SpotStatus.AVAILABLE : status).ordinal());
+            }
+        }
+
+        // Active tickets
+        List<Ticket> activeTickets = new ArrayList<>(ticketManager.getActiveTickets());
+        out.writeInt(activeTickets.size());
+        for (Ticket ticket : activeTickets) {
+            ParkingCodec.writeTicket(out, ticket);
+            ParkingCodec.writeDateTime(out, ticket.getAssignedSpot().getOccupiedSince());
+        }
+
+        // Completed tickets still in memory, oldest exit first
+        List<Ticket> completedTickets = new ArrayList<>(ticketManager.getCompletedTickets());
+        completedTickets.sort(Comparator.comparing(Ticket::getExitTime));
+        out.writeInt(completedTickets.size());
+        for (Ticket ticket : completedTickets) {
+            ParkingCodec.writeTicket(out, ticket);
+        }
+        return journalSequence;
+    }
+
+    private static void readFrom(ParkingLot parkingLot, DataInputStream in) throws IOException {
+        TicketManager ticketManager = parkingLot.getTicketManager();
+
+        int nextTicketNumber = in.readInt();
+        long completedCount = in.readLong();
+        double totalRevenue = in.readDouble();
+        double evChargingRevenue = in.readDouble();
+
+        int gateCount = in.readInt();
+        for (int i = 0; i < gateCount; i++) {
+            EntryExit gate = new EntryExit(in.readUTF(), EntryExitType.values()[in.readByte()]);
+            gate.setOperational(in.readBoolean());
+            gate.restoreVehicleCount(in.readLong());
+            parkingLot.addEntryExitGate(gate);
+        }
+
+        for (int floorNum = 0; floorNum < parkingLot.getTotalFloors(); floorNum++) {
+            int spotCount = in.readInt();
+            for (int i = 0; i < spotCount; i++) {
+                String spotId = in.readUTF();
+                SpotType spotType = SpotType.values()[in.readByte()];
+                SpotStatus status = SpotStatus.values()[in.readByte()];
+                parkingLot.addParkingSpot(floorNum, new ParkingSpot(spotId, spotType, floorNum));
+                parkingLot.restoreSpotStatus(floorNum, spotId, status);
+            }
+        }
+
+        int activeCount = in.readInt();
+        for (int i = 0; i < activeCount; i++) {
+            Ticket ticket = ParkingCodec.readTicket(in, parkingLot);
+            parkingLot.restorePark(ticket, ParkingCodec.readDateTime(in), nextTicketNumber);
+        }
+
+        int completedInMemory = in.readInt();
+        for (int i = 0; i < completedInMemory; i++) {
+            ticketManager.restoreCompletedTicket(ParkingCodec.readTicket(in, null));
+        }
+
+        ticketManager.restoreCounters(completedCount, totalRevenue, evChargingRevenue);
+        ticketManager.advanceTicketNumber(nextTicketNumber);
+    }
+}
@@ -0,0 +1,200 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Low-overhead counters and latency histograms for a parking lot's gate
+ * operations, kept per operation, gate and vehicle type. Gate threads only
+ * touch striped adders and atomic histogram buckets; per-gate slots are
+ * created the first time a gate reports. Can be published over JMX.
+ */
+public class ParkingMetrics implements ParkingMetricsMXBean {
+
+    /**
+     * How a timed operation ended
+     */
+    public enum Outcome {
+        SUCCESS,
+        NO_SPOT,
+        REJECTED
+    }
+
+    private static final String UNKNOWN_GATE = "unknown";
+    private static final GateOperation[] OPERATIONS = GateOperation.values();
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+    private static final int VEHICLE_SLOTS = VEHICLE_TYPES.length + 1; // Last slot: vehicle type not known
+
+    private final Map<String, AtomicReferenceArray<Counters>> countersByGate;
+
+    public ParkingMetrics() {
+        this.countersByGate = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records one call; gateId and vehicleType may be null when the call
+     * failed before they were known
+     */
+    public void record(GateOperation operation, String gateId, VehicleType vehicleType, Outcome outcome,
+            long elapsedNanos) {
+        String gateKey = gateId != null ? gateId : UNKNOWN_GATE;
+        AtomicReferenceArray<Counters> gateCounters = countersByGate.get(gateKey);
+        if (gateCounters == null) {
+            gateCounters = countersByGate.computeIfAbsent(gateKey,
+                    key -> new AtomicReferenceArray<>(OPERATIONS.length * VEHICLE_SLOTS));
+        }
+        int vehicleSlot = vehicleType != null ? vehicleType.ordinal() : VEHICLE_TYPES.length;
+        int slot = operation.ordinal() * VEHICLE_SLOTS + vehicleSlot;
+        Counters counters = gateCounters.get(slot);
+        if (counters == null) {
+            gateCounters.compareAndSet(slot, null, new Counters());
+            counters = gateCounters.get(slot);
+        }
+        counters.outcomes[outcome.ordinal()].increment();
+        counters.latency.record(elapsedNanos);
+    }
+
+    /**
+     * Totals for one operation across every gate and vehicle type
+     */
+    public OperationStats getTotals(GateOperation operation) {
+        Counters total = new Counters();
+        for (AtomicReferenceArray<Counters> gateCounters : countersByGate.values()) {
+            for (int vehicleSlot = 0; vehicleSlot < VEHICLE_SLOTS; vehicleSlot++) {
+                Counters counters = gateCounters.get(operation.ordinal() * VEHICLE_SLOTS + vehicleSlot);
+                if (counters != null) {
+                    total.add(counters);
+                }
+            }
+        }
+        return total.toStats(operation, null, null);
+    }
+
+    @Override
+    public List<OperationStats> getOperationTotals() {
+        List<OperationStats> totals = new ArrayList<>(OPERATIONS.length);
+        for (GateOperation operation : OPERATIONS) {
+            totals.add(getTotals(operation));
+        }
+        return totals;
+    }
+
+    @Override
+    public List<OperationStats> getOperationStats() {
+        List<OperationStats> stats = new ArrayList<>();
+        for (Map.Entry<String, AtomicReferenceArray<Counters>> entry : new TreeMap<>(countersByGate).entrySet()) {
+            AtomicReferenceArray<Counters> gateCounters = entry.getValue();
+            for (int slot = 0; slot < gateCounters.length(); slot++) {
+                Counters counters = gateCounters.get(slot);
+                if (counters != null) {
+                    int vehicleSlot = slot % VEHICLE_SLOTS;
+                    stats.add(counters.toStats(OPERATIONS[slot / VEHICLE_SLOTS], entry.getKey(),
+                            vehicleSlot < VEHICLE_TYPES.length ? VEHICLE_TYPES[vehicleSlot] : null));
+                }
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public long getParkCount() {
+        return getTotals(GateOperation.PARK).getCount();
+    }
+
+    @Override
+    public long getNoSpotCount() {
+        return getTotals(GateOperation.PARK).getNoSpotCount();
+    }
+
+    @Override
+    public long getRemoveCount() {
+        return getTotals(GateOperation.REMOVE).getCount();
+    }
+
+    @Override
+    public long getPaymentCount() {
+        return getTotals(GateOperation.PAYMENT).getCount();
+    }
+
+    @Override
+    public double getParkP99Micros() {
+        return getTotals(GateOperation.PARK).getP99Micros();
+    }
+
+    @Override
+    public double getRemoveP99Micros() {
+        return getTotals(GateOperation.REMOVE).getP99Micros();
+    }
+
+    @Override
+    public double getPaymentP99Micros() {
+        return getTotals(GateOperation.PAYMENT).getP99Micros();
+    }
+
+    /**
+     * Clears every counter and histogram
+     */
+    @Override
+    public void reset() {
+        countersByGate.clear();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under
+     * ParkingLot:type=Metrics,lot=&lt;parkingLotId&gt;
+     */
+    public ObjectName registerMBean(String parkingLotId) {
+        try {
+            ObjectName objectName = objectName(parkingLotId);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics for " + parkingLotId, e);
+        }
+    }
+
+    public void unregisterMBean(String parkingLotId) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(parkingLotId);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister metrics for " + parkingLotId, e);
+        }
+    }
+
+    private static ObjectName objectName(String parkingLotId) throws JMException {
+        return new ObjectName("ParkingLot:type=Metrics,lot=" + ObjectName.quote(parkingLotId));
+    }
+
+    private static final class Counters {
+        private final LongAdder[] outcomes;
+        private final LatencyHistogram latency;
+
+        private Counters() {
+            this.outcomes = new LongAdder[Outcome.values().length];
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+            this.latency = new LatencyHistogram();
+        }
+
+        private void add(Counters other) {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i].add(other.outcomes[i].sum());
+            }
+            latency.add(other.latency);
+        }
+
+        private OperationStats toStats(GateOperation operation, String gateId, VehicleType vehicleType) {
+            return new OperationStats(operation, gateId, vehicleType, outcomes[Outcome.SUCCESS.ordinal()].sum(),
+                    outcomes[Outcome.NO_SPOT.ordinal()].sum(), outcomes[Outcome.REJECTED.ordinal()].sum(), latency);
+        }
+    }
+}
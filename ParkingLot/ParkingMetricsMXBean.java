@@ -0,0 +1,32 @@
+import java.util.List;
+
+/**
+ * JMX view of a parking lot's gate metrics
+ */
+public interface ParkingMetricsMXBean {
+    long getParkCount();
+
+    long getNoSpotCount();
+
+    long getRemoveCount();
+
+    long getPaymentCount();
+
+    double getParkP99Micros();
+
+    double getRemoveP99Micros();
+
+    double getPaymentP99Micros();
+
+    /**
+     * Totals per operation across every gate and vehicle type
+     */
+    List<OperationStats> getOperationTotals();
+
+    /**
+     * One entry per operation, gate and vehicle type seen so far
+     */
+    List<OperationStats> getOperationStats();
+
+    void reset();
+}
@@ -0,0 +1,62 @@
+/**
+ * Outcome of admitting a single vehicle as part of a batch entry
+ */
+public class ParkingResult {
+    private final Vehicle vehicle;
+    private final Ticket ticket;
+    private final String failureReason;
+    private final boolean noSpot;
+
+    private ParkingResult(Vehicle vehicle, Ticket ticket, String failureReason, boolean noSpot) {
+        this.vehicle = vehicle;
+        this.ticket = ticket;
+        this.failureReason = failureReason;
+        this.noSpot = noSpot;
+    }
+
+    public static ParkingResult success(Vehicle vehicle, Ticket ticket) {
+        return new ParkingResult(vehicle, ticket, null, false);
+    }
+
+    public static ParkingResult failure(Vehicle vehicle, String failureReason) {
+        return new ParkingResult(vehicle, null, failureReason, false);
+    }
+
+    /**
+     * The vehicle was turned away because no compatible spot was free
+     */
+    static ParkingResult noSpot(Vehicle vehicle) {
+        return new ParkingResult(vehicle, null, "No available parking spot for " + vehicle.getType(), true);
+    }
+
+    public boolean isSuccess() {
+        return ticket != null;
+    }
+
+    /**
+     * Whether the vehicle was turned away for lack of a compatible free spot
+     */
+    public boolean isNoSpot() {
+        return noSpot;
+    }
+
+    // Getters
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess()
+                ? String.format("%s -> %s", vehicle.getLicensePlate(), ticket.getTicketId())
+                : String.format("%s -> FAILED (%s)", vehicle.getLicensePlate(), failureReason);
+    }
+}
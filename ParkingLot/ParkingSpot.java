@@ -1,15 +1,21 @@
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * ParkingSpot class representing an individual parking space
+ * ParkingSpot class representing an individual parking space.
+ * Status transitions are serialized per spot, so concurrent gates can never
+ * park two vehicles in the same spot.
  */
 public class ParkingSpot {
     private final String spotId;
     private final SpotType spotType;
     private final int floor;
-    private SpotStatus status;
-    private Vehicle parkedVehicle;
-    private LocalDateTime occupiedSince;
+    private volatile SpotStatus status;
+    private volatile Vehicle parkedVehicle;
+    private volatile LocalDateTime occupiedSince;
+    private volatile SpotStatusListener statusListener;
+    private volatile boolean reservationHold;
+    private final AtomicBoolean queuedAsFree;
 
     public ParkingSpot(String spotId, SpotType spotType, int floor) {
         this.spotId = spotId;
@@ -18,6 +24,7 @@ public class ParkingSpot {
         this.status = SpotStatus.AVAILABLE;
         this.parkedVehicle = null;
         this.occupiedSince = null;
+        this.queuedAsFree = new AtomicBoolean(false);
     }
 
     /**
@@ -38,56 +45,142 @@ public class ParkingSpot {
      * Parks a vehicle in this spot
      */
     public boolean parkVehicle(Vehicle vehicle) {
+        return parkVehicle(vehicle, LocalDateTime.now());
+    }
+
+    /**
+     * Parks a vehicle that has occupied the spot since the given time (used
+     * when restoring saved state)
+     */
+    synchronized boolean parkVehicle(Vehicle vehicle, LocalDateTime occupiedSince) {
         if (!canParkVehicle(vehicle)) {
             return false;
         }
 
         this.parkedVehicle = vehicle;
-        this.status = SpotStatus.OCCUPIED;
-        this.occupiedSince = LocalDateTime.now();
+        this.occupiedSince = occupiedSince;
+        changeStatus(SpotStatus.OCCUPIED);
         return true;
     }
 
     /**
-     * Removes the vehicle from this spot
+     * Removes the vehicle from this spot. The vehicle is cleared only after
+     * the status listeners ran, so they still see which vehicle left.
      */
-    public Vehicle removeVehicle() {
+    public synchronized Vehicle removeVehicle() {
         if (status != SpotStatus.OCCUPIED || parkedVehicle == null) {
             return null;
         }
 
         Vehicle vehicle = this.parkedVehicle;
-        this.parkedVehicle = null;
-        this.status = SpotStatus.AVAILABLE;
         this.occupiedSince = null;
+        changeStatus(SpotStatus.AVAILABLE);
+        this.parkedVehicle = null;
         return vehicle;
     }
 
     /**
-     * Reserves the spot
+     * Reserves the spot; returns false if it was not available
      */
-    public void reserve() {
-        if (status == SpotStatus.AVAILABLE) {
-            status = SpotStatus.RESERVED;
+    public synchronized boolean reserve() {
+        if (status != SpotStatus.AVAILABLE) {
+            return false;
         }
+        changeStatus(SpotStatus.RESERVED);
+        return true;
+    }
+
+    /**
+     * Reserves the spot on behalf of a ReservationManager booking. Such holds
+     * live only as long as the booking, so they are neither journaled nor
+     * snapshotted; returns false if the spot was not available.
+     */
+    synchronized boolean holdForReservation() {
+        if (status != SpotStatus.AVAILABLE) {
+            return false;
+        }
+        reservationHold = true;
+        changeStatus(SpotStatus.RESERVED);
+        return true;
+    }
+
+    /**
+     * Whether the spot is RESERVED for a ReservationManager booking; still
+     * true while listeners hear about the hold ending
+     */
+    boolean isReservationHold() {
+        return reservationHold;
+    }
+
+    /**
+     * Parks the vehicle a reserved spot was held for
+     */
+    synchronized boolean parkReservedVehicle(Vehicle vehicle, LocalDateTime occupiedSince) {
+        if (status != SpotStatus.RESERVED || !vehicle.canFitInSpot(spotType)) {
+            return false;
+        }
+        this.parkedVehicle = vehicle;
+        this.occupiedSince = occupiedSince;
+        changeStatus(SpotStatus.OCCUPIED);
+        return true;
     }
 
     /**
      * Makes the spot unavailable (out of order)
      */
-    public void markOutOfOrder() {
+    public synchronized void markOutOfOrder() {
         if (status == SpotStatus.AVAILABLE) {
-            status = SpotStatus.OUT_OF_ORDER;
+            changeStatus(SpotStatus.OUT_OF_ORDER);
         }
     }
 
     /**
      * Makes the spot available again
      */
-    public void markAvailable() {
+    public synchronized void markAvailable() {
         if (status == SpotStatus.OUT_OF_ORDER || status == SpotStatus.RESERVED) {
-            status = SpotStatus.AVAILABLE;
+            changeStatus(SpotStatus.AVAILABLE);
+        }
+    }
+
+    /**
+     * Updates the status and notifies the owning floor's index
+     */
+    private void changeStatus(SpotStatus newStatus) {
+        SpotStatus oldStatus = this.status;
+        this.status = newStatus;
+        if (statusListener != null) {
+            statusListener.onStatusChanged(this, oldStatus, newStatus);
         }
+        if (newStatus != SpotStatus.RESERVED) {
+            reservationHold = false;
+        }
+    }
+
+    /**
+     * Registers the listener (normally the owning floor) for status changes
+     */
+    void setStatusListener(SpotStatusListener statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    /**
+     * Whether this spot currently sits in its floor's free-spot queue
+     */
+    boolean isQueuedAsFree() {
+        return queuedAsFree.get();
+    }
+
+    /**
+     * Claims the free-queue slot for this spot; returns false if it is already
+     * queued
+     */
+    boolean markQueuedAsFree() {
+        return queuedAsFree.compareAndSet(false, true);
+    }
+
+    void clearQueuedAsFree() {
+        queuedAsFree.set(false);
     }
 
     // Getters
@@ -0,0 +1,105 @@
+import java.time.LocalDateTime;
+
+/**
+ * Reservation class representing a pre-booked hold on one spot of a given
+ * type for a time window. The concrete spot is set aside when the window
+ * starts.
+ */
+public class Reservation {
+    private final String reservationId;
+    private final Vehicle vehicle;
+    private final SpotType spotType;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final long startEpochMillis;
+    private final long endEpochMillis;
+    private volatile ReservationStatus status;
+    private volatile ParkingSpot heldSpot;
+    private volatile Ticket ticket;
+
+    public Reservation(String reservationId, Vehicle vehicle, SpotType spotType, LocalDateTime startTime,
+            LocalDateTime endTime) {
+        this.reservationId = reservationId;
+        this.vehicle = vehicle;
+        this.spotType = spotType;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.startEpochMillis = TariffEngine.toEpochMillis(startTime);
+        this.endEpochMillis = TariffEngine.toEpochMillis(endTime);
+        this.status = ReservationStatus.BOOKED;
+    }
+
+    /**
+     * Checks if the reservation still entitles its vehicle to a spot
+     */
+    public boolean isOpen() {
+        return status == ReservationStatus.BOOKED || status == ReservationStatus.HOLDING;
+    }
+
+    void hold(ParkingSpot spot) {
+        this.heldSpot = spot;
+        this.status = ReservationStatus.HOLDING;
+    }
+
+    void checkIn(Ticket ticket) {
+        this.ticket = ticket;
+        this.status = ReservationStatus.CHECKED_IN;
+    }
+
+    void close(ReservationStatus status) {
+        this.status = status;
+    }
+
+    // Getters
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public SpotType getSpotType() {
+        return spotType;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public long getEndEpochMillis() {
+        return endEpochMillis;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * The spot set aside for this reservation, or null before the window
+     * starts
+     */
+    public ParkingSpot getHeldSpot() {
+        return heldSpot;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reservation[%s] Vehicle:%s Type:%s %s-%s %s %s", reservationId,
+                vehicle.getLicensePlate(), spotType.getDisplayName(), startTime.toString().substring(0, 16),
+                endTime.toString().substring(11, 16), status.getDisplayName(),
+                heldSpot != null ? "Spot:" + heldSpot.getSpotId() : "");
+    }
+}
@@ -0,0 +1,321 @@
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Books time-windowed holds on spot types ahead of arrival.
+ * Each spot type has a reservable capacity and a HoldCountTree of future
+ * holds by minute, so "is there room for type X between t1 and t2" and a
+ * booking are both O(log horizon). When a window starts a free spot of the
+ * type is set aside as RESERVED for the vehicle; when it ends unused the spot
+ * is released. A sweeper walks holds in start and end order, so it only
+ * touches the reservations that are due.
+ *
+ * Reservable capacity is not withheld from walk-in traffic, so a booking
+ * does not guarantee a spot: if none of its type is free when its window
+ * starts, the reservation waits and each sweep tries again until a spot
+ * frees up or the window ends.
+ *
+ * Bookings live in memory only. Their holds are not journaled or
+ * snapshotted, so a restored lot comes back with those spots free rather
+ * than RESERVED with no booking behind them.
+ */
+public class ReservationManager implements AutoCloseable {
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final int HORIZON_BITS = 20; // About two years of minutes
+    private static final long HORIZON_MINUTES = 1L << HORIZON_BITS;
+    private static final Comparator<Reservation> BY_START = Comparator
+            .comparingLong(Reservation::getStartEpochMillis).thenComparing(Reservation::getReservationId);
+    private static final Comparator<Reservation> BY_END = Comparator
+            .comparingLong(Reservation::getEndEpochMillis).thenComparing(Reservation::getReservationId);
+
+    private final ParkingLot parkingLot;
+    private final long baseMinute;
+    private final Map<SpotType, HoldCountTree> holdsByType;
+    private final Map<SpotType, Integer> capacityByType;
+    private final Map<String, Reservation> reservations;
+    private final Map<String, List<Reservation>> openReservationsByPlate;
+    private final TreeSet<Reservation> pendingStarts;
+    private final TreeSet<Reservation> pendingEnds;
+    private final TreeSet<Reservation> awaitingSpot;
+    private final AtomicInteger reservationCounter;
+    private ScheduledExecutorService sweeper;
+
+    public ReservationManager(ParkingLot parkingLot) {
+        this.parkingLot = parkingLot;
+        this.baseMinute = Math.floorDiv(TariffEngine.toEpochMillis(LocalDateTime.now()), MILLIS_PER_MINUTE);
+        this.holdsByType = new EnumMap<>(SpotType.class);
+        this.capacityByType = new EnumMap<>(SpotType.class);
+        this.reservations = new ConcurrentHashMap<>();
+        this.openReservationsByPlate = new HashMap<>();
+        this.pendingStarts = new TreeSet<>(BY_START);
+        this.pendingEnds = new TreeSet<>(BY_END);
+        this.awaitingSpot = new TreeSet<>(BY_START);
+        this.reservationCounter = new AtomicInteger(1);
+
+        for (SpotType spotType : SpotType.values()) {
+            holdsByType.put(spotType, new HoldCountTree(HORIZON_BITS));
+            capacityByType.put(spotType, 0);
+        }
+    }
+
+    /**
+     * Sets how many spots of a type may be held at the same time
+     */
+    public synchronized void setCapacity(SpotType spotType, int spots) {
+        if (spots < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + spots);
+        }
+        capacityByType.put(spotType, spots);
+    }
+
+    public synchronized int getCapacity(SpotType spotType) {
+        return capacityByType.get(spotType);
+    }
+
+    /**
+     * Checks if one more vehicle could hold a spot of the type for the whole
+     * window
+     */
+    public boolean hasCapacity(SpotType spotType, LocalDateTime startTime, LocalDateTime endTime) {
+        return getAvailableCapacity(spotType, startTime, endTime) > 0;
+    }
+
+    /**
+     * Gets how many more holds of the type fit into the window, limited by its
+     * busiest minute
+     */
+    public synchronized int getAvailableCapacity(SpotType spotType, LocalDateTime startTime, LocalDateTime endTime) {
+        long[] slots = toSlots(TariffEngine.toEpochMillis(startTime), TariffEngine.toEpochMillis(endTime));
+        int busiest = holdsByType.get(spotType).max(slots[0], slots[1]);
+        return Math.max(0, capacityByType.get(spotType) - busiest);
+    }
+
+    /**
+     * Books a hold on a spot of the given type for a vehicle
+     */
+    public synchronized Reservation book(Vehicle vehicle, SpotType spotType, LocalDateTime startTime,
+            LocalDateTime endTime) {
+        if (!vehicle.canFitInSpot(spotType)) {
+            throw new IllegalArgumentException(vehicle.getType() + " cannot park in a "
+                    + spotType.getDisplayName() + " spot");
+        }
+        if (!endTime.isAfter(startTime) || !endTime.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Reservation window must end after it starts and in the future");
+        }
+        for (Reservation existing : openReservationsByPlate.getOrDefault(vehicle.getLicensePlate(),
+                Collections.emptyList())) {
+            if (existing.getStartTime().isBefore(endTime) && startTime.isBefore(existing.getEndTime())) {
+                throw new IllegalStateException("Vehicle " + vehicle.getLicensePlate()
+                        + " already has an overlapping reservation " + existing.getReservationId());
+            }
+        }
+        if (!hasCapacity(spotType, startTime, endTime)) {
+            throw new IllegalStateException("No " + spotType.getDisplayName() + " spot can be reserved from "
+                    + startTime + " to " + endTime);
+        }
+
+        Reservation reservation = new Reservation(generateReservationId(), vehicle, spotType, startTime, endTime);
+        adjustHolds(reservation, 1);
+        reservations.put(reservation.getReservationId(), reservation);
+        openReservationsByPlate.computeIfAbsent(vehicle.getLicensePlate(), plate -> new ArrayList<>(1))
+                .add(reservation);
+        pendingStarts.add(reservation);
+        pendingEnds.add(reservation);
+        return reservation;
+    }
+
+    /**
+     * Cancels an open reservation and releases its spot; returns false if it
+     * was not open
+     */
+    public synchronized boolean cancel(String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.isOpen()) {
+            return false;
+        }
+        pendingStarts.remove(reservation);
+        pendingEnds.remove(reservation);
+        awaitingSpot.remove(reservation);
+        adjustHolds(reservation, -1);
+        release(reservation, ReservationStatus.CANCELLED);
+        return true;
+    }
+
+    /**
+     * Parks the vehicle of a reservation whose window has started, in the spot
+     * held for it. If no spot could be set aside (the lot was full when the
+     * window started) the vehicle is parked like any other arrival, which
+     * throws NoAvailableSpotException if the lot is still full.
+     */
+    public synchronized Ticket checkIn(String reservationId, String entryGateId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " does not exist");
+        }
+        if (!reservation.isOpen()) {
+            throw new IllegalStateException("Reservation " + reservationId + " is "
+                    + reservation.getStatus().getDisplayName());
+        }
+        long nowMillis = TariffEngine.toEpochMillis(LocalDateTime.now());
+        if (nowMillis < reservation.getStartEpochMillis()) {
+            throw new IllegalStateException("Reservation " + reservationId + " starts at "
+                    + reservation.getStartTime());
+        }
+        if (nowMillis >= reservation.getEndEpochMillis()) {
+            throw new IllegalStateException("Reservation " + reservationId + " ended at "
+                    + reservation.getEndTime());
+        }
+        if (reservation.getStatus() == ReservationStatus.BOOKED) {
+            pendingStarts.remove(reservation);
+            awaitingSpot.remove(reservation);
+            holdSpot(reservation);
+        }
+
+        ParkingSpot heldSpot = reservation.getHeldSpot();
+        Ticket ticket = heldSpot != null
+                ? parkingLot.parkReservedVehicle(reservation.getVehicle(), heldSpot, entryGateId)
+                : parkingLot.parkVehicle(reservation.getVehicle(), entryGateId);
+        // The hold keeps counting against capacity until its window ends
+        reservation.checkIn(ticket);
+        forgetOpen(reservation);
+        return ticket;
+    }
+
+    /**
+     * Sets aside spots for windows that have started, retrying those still
+     * waiting for one, and releases the spots of windows that ended without a
+     * check-in
+     */
+    public void sweep() {
+        sweep(TariffEngine.toEpochMillis(LocalDateTime.now()));
+    }
+
+    synchronized void sweep(long nowMillis) {
+        // Earlier windows get the spots freed since the last sweep first
+        awaitingSpot.removeIf(this::holdSpot);
+        while (!pendingStarts.isEmpty() && pendingStarts.first().getStartEpochMillis() <= nowMillis) {
+            Reservation reservation = pendingStarts.pollFirst();
+            if (reservation.getStatus() == ReservationStatus.BOOKED && !holdSpot(reservation)) {
+                awaitingSpot.add(reservation);
+            }
+        }
+        while (!pendingEnds.isEmpty() && pendingEnds.first().getEndEpochMillis() <= nowMillis) {
+            Reservation reservation = pendingEnds.pollFirst();
+            pendingStarts.remove(reservation);
+            awaitingSpot.remove(reservation);
+            adjustHolds(reservation, -1);
+            if (reservation.isOpen()) {
+                release(reservation, ReservationStatus.EXPIRED);
+            }
+        }
+    }
+
+    /**
+     * Runs the sweeper on a background thread at a fixed period
+     */
+    public synchronized void startSweeper(long period, TimeUnit unit) {
+        if (sweeper != null) {
+            throw new IllegalStateException("Sweeper is already running");
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-sweeper-" + parkingLot.getParkingLotId());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweep, 0, period, unit);
+    }
+
+    /**
+     * Stops the background sweeper
+     */
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdown();
+            sweeper = null;
+        }
+    }
+
+    public Reservation getReservation(String reservationId) {
+        return reservations.get(reservationId);
+    }
+
+    /**
+     * Gets the reservations that still entitle a vehicle to a spot
+     */
+    public List<Reservation> getOpenReservations() {
+        List<Reservation> open = new ArrayList<>();
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.isOpen()) {
+                open.add(reservation);
+            }
+        }
+        open.sort(BY_START);
+        return open;
+    }
+
+    /**
+     * Claims a free spot of the reservation's type, lowest floor first, and
+     * returns whether one was found; the reservation stays BOOKED if not.
+     * Floors without such a spot are skipped using the lot's availability
+     * summary, so retrying while the lot is full costs little.
+     */
+    private boolean holdSpot(Reservation reservation) {
+        FloorAvailabilitySummary availability = parkingLot.getAvailabilitySummary();
+        SpotType[] spotTypes = { reservation.getSpotType() };
+        for (int floorNum = availability.nextFloorWithSpace(spotTypes, 0); floorNum >= 0;
+                floorNum = availability.nextFloorWithSpace(spotTypes, floorNum + 1)) {
+            ParkingSpot spot = parkingLot.getFloor(floorNum).holdSpotForReservation(reservation.getSpotType());
+            if (spot != null) {
+                reservation.hold(spot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release(Reservation reservation, ReservationStatus finalStatus) {
+        ParkingSpot heldSpot = reservation.getHeldSpot();
+        if (heldSpot != null && heldSpot.getStatus() == SpotStatus.RESERVED) {
+            heldSpot.markAvailable();
+        }
+        reservation.close(finalStatus);
+        forgetOpen(reservation);
+    }
+
+    private void forgetOpen(Reservation reservation) {
+        String licensePlate = reservation.getVehicle().getLicensePlate();
+        List<Reservation> open = openReservationsByPlate.get(licensePlate);
+        if (open != null && open.remove(reservation) && open.isEmpty()) {
+            openReservationsByPlate.remove(licensePlate);
+        }
+    }
+
+    private void adjustHolds(Reservation reservation, int delta) {
+        long[] slots = toSlots(reservation.getStartEpochMillis(), reservation.getEndEpochMillis());
+        holdsByType.get(reservation.getSpotType()).add(slots[0], slots[1], delta);
+    }
+
+    /**
+     * Minute slots [from, to) covering a window, relative to when the manager
+     * was created; the past is clamped to slot 0
+     */
+    private long[] toSlots(long startMillis, long endMillis) {
+        long from = Math.max(0L, Math.floorDiv(startMillis, MILLIS_PER_MINUTE) - baseMinute);
+        long to = Math.max(from + 1, -Math.floorDiv(-endMillis, MILLIS_PER_MINUTE) - baseMinute);
+        if (to > HORIZON_MINUTES) {
+            throw new IllegalArgumentException("Reservations can be made at most "
+                    + HORIZON_MINUTES / (24 * 60) + " days ahead");
+        }
+        return new long[] { from, to };
+    }
+
+    private String generateReservationId() {
+        return String.format("RSV-%06d", reservationCounter.getAndIncrement());
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Enum representing the lifecycle of a spot reservation
+ */
+public enum ReservationStatus {
+    BOOKED("Booked"),
+    HOLDING("Holding Spot"),
+    CHECKED_IN("Checked In"),
+    EXPIRED("Expired"),
+    CANCELLED("Cancelled");
+
+    private final String displayName;
+
+    ReservationStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.*;
+
+/**
+ * Outcome of a LoadSimulator run: throughput, how many arrivals were turned
+ * away for lack of a spot, and latency percentiles per gate operation
+ */
+public class SimulationReport {
+    private final int threads;
+    private final long events;
+    private final long skippedEvents;
+    private final long elapsedNanos;
+    private final Map<GateOperation, OperationStats> statsByOperation;
+
+    SimulationReport(int threads, long events, long skippedEvents, long elapsedNanos, ParkingMetrics metrics) {
+        this.threads = threads;
+        this.events = events;
+        this.skippedEvents = skippedEvents;
+        this.elapsedNanos = elapsedNanos;
+        this.statsByOperation = new EnumMap<>(GateOperation.class);
+        for (OperationStats stats : metrics.getOperationTotals()) {
+            statsByOperation.put(stats.getOperation(), stats);
+        }
+    }
+
+    /**
+     * Gate operations executed per second of wall time
+     */
+    public double getThroughputPerSecond() {
+        return elapsedNanos > 0 ? getExecutedEvents() * 1e9 / elapsedNanos : 0.0;
+    }
+
+    /**
+     * Share of arrivals turned away because no compatible spot was free
+     */
+    public double getRejectionRate() {
+        OperationStats park = statsByOperation.get(GateOperation.PARK);
+        return park.getCount() > 0 ? (double) park.getNoSpotCount() / park.getCount() : 0.0;
+    }
+
+    /**
+     * Calls that failed for any reason other than a full lot
+     */
+    public long getErrorCount() {
+        long errors = 0;
+        for (OperationStats stats : statsByOperation.values()) {
+            errors += stats.getRejectedCount();
+        }
+        return errors;
+    }
+
+    public OperationStats getStats(GateOperation operation) {
+        return statsByOperation.get(operation);
+    }
+
+    public long getExecutedEvents() {
+        return events - skippedEvents;
+    }
+
+    // Getters
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Payments and departures of vehicles that were never admitted
+     */
+    public long getSkippedEvents() {
+        return skippedEvents;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(
+                "%d events on %d thread(s) in %.1f ms: %.0f ops/sec, %.2f%% arrivals rejected, %d errors, %d skipped",
+                events, threads, getElapsedMillis(), getThroughputPerSecond(), getRejectionRate() * 100,
+                getErrorCount(), skippedEvents));
+        for (OperationStats stats : statsByOperation.values()) {
+            report.append(System.lineSeparator()).append("  ").append(stats);
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Decides which free spot a vehicle is given when it enters the lot.
+ * Strategies that keep their own index are told about new gates, new spots
+ * and every spot status change through the default callbacks.
+ */
+public interface SpotAllocationStrategy extends SpotStatusListener {
+
+    /**
+     * Claims a free spot for the vehicle entering through the given gate and
+     * parks it there; returns null if no compatible spot is free
+     */
+    ParkingSpot allocate(ParkingLot parkingLot, Vehicle vehicle, EntryExit entryGate);
+
+    default void onGateAdded(EntryExit gate) {
+    }
+
+    default void onSpotAdded(ParkingSpot spot) {
+    }
+
+    @Override
+    default void onStatusChanged(ParkingSpot spot, SpotStatus oldStatus, SpotStatus newStatus) {
+    }
+}
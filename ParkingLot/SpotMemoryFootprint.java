@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the heap used by a 50,000-spot facility held as Floor and
+ * ParkingSpot objects with the same facility in a CompactSpotStore, empty
+ * and 60% occupied. Vehicles are created up front and excluded from both.
+ */
+public class SpotMemoryFootprint {
+    private static final int FLOORS = 10;
+    private static final int SPOTS_PER_FLOOR = 5_000;
+    private static final double OCCUPANCY = 0.6;
+    private static final SpotType[] LAYOUT = { SpotType.COMPACT, SpotType.REGULAR, SpotType.REGULAR,
+            SpotType.REGULAR, SpotType.LARGE, SpotType.ELECTRIC };
+
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int totalSpots = FLOORS * SPOTS_PER_FLOOR;
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < totalSpots * OCCUPANCY; i++) {
+            vehicles.add(new Vehicle(String.format("MEM-%06d", i), VehicleType.CAR, "Silver", "Footprint"));
+        }
+
+        System.out.println("=== SPOT MEMORY FOOTPRINT ===");
+        System.out.println(String.format("%d floors x %d spots, %d vehicles parked in the occupied case%n", FLOORS,
+                SPOTS_PER_FLOOR, vehicles.size()));
+        System.out.println(String.format("%-24s %16s %16s %14s", "Store", "Empty (bytes)", "Occupied (bytes)",
+                "Bytes/spot"));
+
+        long objectEmpty = measure(() -> createFloors(null));
+        long objectOccupied = measure(() -> createFloors(vehicles));
+        long compactEmpty = measure(() -> createCompactStore(null));
+        long compactOccupied = measure(() -> createCompactStore(vehicles));
+
+        System.out.println(String.format("%-24s %16d %16d %14.1f", "Floor + ParkingSpot", objectEmpty,
+                objectOccupied, (double) objectOccupied / totalSpots));
+        System.out.println(String.format("%-24s %16d %16d %14.1f", "CompactSpotStore", compactEmpty,
+                compactOccupied, (double) compactOccupied / totalSpots));
+        System.out.println(String.format("%nCompact store uses %.1fx less heap when occupied",
+                (double) objectOccupied / compactOccupied));
+    }
+
+    private static List<Floor> createFloors(List<Vehicle> vehicles) {
+        List<Floor> floors = new ArrayList<>(FLOORS);
+        for (int floorNum = 0; floorNum < FLOORS; floorNum++) {
+            Floor floor = new Floor(floorNum);
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                floor.addParkingSpot(new ParkingSpot(String.format("F%d-%05d", floorNum, i),
+                        LAYOUT[i % LAYOUT.length], floorNum));
+            }
+            floors.add(floor);
+        }
+        if (vehicles != null) {
+            int floorNum = 0;
+            for (Vehicle vehicle : vehicles) {
+                while (floors.get(floorNum).parkVehicle(vehicle) == null) {
+                    floorNum++;
+                }
+            }
+        }
+        return floors;
+    }
+
+    private static CompactSpotStore createCompactStore(List<Vehicle> vehicles) {
+        CompactSpotStore store = new CompactSpotStore("S", FLOORS, FLOORS * SPOTS_PER_FLOOR);
+        for (int floorNum = 0; floorNum < FLOORS; floorNum++) {
+            for (int i = 0; i < SPOTS_PER_FLOOR; i++) {
+                store.addSpot(floorNum, LAYOUT[i % LAYOUT.length]);
+            }
+        }
+        if (vehicles != null) {
+            for (Vehicle vehicle : vehicles) {
+                store.parkVehicle(vehicle);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Returns the growth in used heap after building and retaining the
+     * structure, measured after repeated garbage collection
+     */
+    private static long measure(Supplier<Object> builder) {
+        retained = null;
+        long before = usedHeap();
+        retained = builder.get();
+        long after = usedHeap();
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
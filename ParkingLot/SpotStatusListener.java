@@ -0,0 +1,6 @@
+/**
+ * Listener notified whenever a parking spot changes its status
+ */
+public interface SpotStatusListener {
+    void onStatusChanged(ParkingSpot spot, SpotStatus oldStatus, SpotStatus newStatus);
+}
@@ -0,0 +1,37 @@
+/**
+ * Sends each vehicle to the floor with the largest share of free spots, so
+ * traffic is spread over all ramps instead of filling the ground floor first
+ */
+public class SpreadAcrossFloorsStrategy implements SpotAllocationStrategy {
+
+    @Override
+    public ParkingSpot allocate(ParkingLot parkingLot, Vehicle vehicle, EntryExit entryGate) {
+        int totalFloors = parkingLot.getTotalFloors();
+        int emptiestFloor = -1;
+        double emptiestShare = 0.0;
+        for (int floorNum = 0; floorNum < totalFloors; floorNum++) {
+            Floor floor = parkingLot.getFloor(floorNum);
+            int capacity = floor.getTotalCapacity();
+            double freeShare = capacity > 0 ? (double) floor.getAvailableSpotCount() / capacity : 0.0;
+            if (freeShare > emptiestShare) {
+                emptiestShare = freeShare;
+                emptiestFloor = floorNum;
+            }
+        }
+        if (emptiestFloor < 0) {
+            return null;
+        }
+
+        ParkingSpot spot = parkingLot.getFloor(emptiestFloor).parkVehicle(vehicle);
+        // The emptiest floor may have nothing this vehicle fits in
+        FloorAvailabilitySummary availability = parkingLot.getAvailabilitySummary();
+        SpotType[] preferredSpotTypes = vehicle.getPreferredSpotTypes();
+        for (int floorNum = availability.nextFloorWithSpace(preferredSpotTypes, 0); spot == null && floorNum >= 0;
+                floorNum = availability.nextFloorWithSpace(preferredSpotTypes, floorNum + 1)) {
+            if (floorNum != emptiestFloor) {
+                spot = parkingLot.getFloor(floorNum).parkVehicle(vehicle);
+            }
+        }
+        return spot;
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Demand-based pricing. A background task turns the live share of taken
+ * spots per floor and spot type into a surge multiplier and publishes a
+ * freshly built TariffEngine. Pricing a ticket only reads the current engine,
+ * so fee calculation stays a lock-free table lookup and never looks at
+ * occupancy itself. Attach it with TicketManager.setPricing.
+ */
+public class SurgePricing implements AutoCloseable {
+    private static final double[] DEFAULT_THRESHOLDS = { 0.70, 0.85, 0.95 };
+    private static final double[] DEFAULT_MULTIPLIERS = { 1.25, 1.5, 2.0 };
+    private static final SpotType[] SPOT_TYPES = SpotType.values();
+
+    private final ParkingLot parkingLot;
+    private final long baseRateCentsPerHour;
+    private final double[] occupancyThresholds;
+    private final double[] multipliers;
+    private volatile TariffEngine currentTariff;
+    private ScheduledExecutorService refresher;
+
+    /**
+     * Standard base rate, surging 1.25x from 70% taken, 1.5x from 85% and 2x
+     * from 95%
+     */
+    public SurgePricing(ParkingLot parkingLot) {
+        this(parkingLot, TariffEngine.BASE_RATE_CENTS_PER_HOUR, DEFAULT_THRESHOLDS, DEFAULT_MULTIPLIERS);
+    }
+
+    /**
+     * Creates surge pricing with tiers: multipliers[i] applies once the share
+     * of taken spots reaches occupancyThresholds[i] (ascending)
+     */
+    public SurgePricing(ParkingLot parkingLot, long baseRateCentsPerHour, double[] occupancyThresholds,
+            double[] multipliers) {
+        if (occupancyThresholds.length != multipliers.length) {
+            throw new IllegalArgumentException("Every occupancy threshold needs one multiplier");
+        }
+        for (int i = 1; i < occupancyThresholds.length; i++) {
+            if (occupancyThresholds[i] <= occupancyThresholds[i - 1]) {
+                throw new IllegalArgumentException("Occupancy thresholds must be ascending");
+            }
+        }
+        this.parkingLot = parkingLot;
+        this.baseRateCentsPerHour = baseRateCentsPerHour;
+        this.occupancyThresholds = occupancyThresholds.clone();
+        this.multipliers = multipliers.clone();
+        refresh();
+    }
+
+    /**
+     * Gets the rate table currently in force
+     */
+    public TariffEngine getCurrentTariff() {
+        return currentTariff;
+    }
+
+    /**
+     * Rebuilds the rate table from the floors' availability counters and
+     * swaps it in
+     */
+    public synchronized void refresh() {
+        int floorCount = parkingLot.getTotalFloors();
+        double[] surge = new double[floorCount * SPOT_TYPES.length];
+        for (int floorNum = 0; floorNum < floorCount; floorNum++) {
+            Floor floor = parkingLot.getFloor(floorNum);
+            for (SpotType spotType : SPOT_TYPES) {
+                int total = floor.getTotalCapacity(spotType);
+                double taken = total > 0 ? (double) (total - floor.getAvailableSpotCount(spotType)) / total : 0.0;
+                surge[floorNum * SPOT_TYPES.length + spotType.ordinal()] = multiplierFor(taken);
+            }
+        }
+        currentTariff = new TariffEngine(baseRateCentsPerHour, floorCount, surge);
+    }
+
+    /**
+     * Refreshes the rate table on a background thread at a fixed period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (refresher != null) {
+            throw new IllegalStateException("Surge pricing is already refreshing");
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "surge-pricing-" + parkingLot.getParkingLotId());
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleAtFixedRate(this::refresh, period, period, unit);
+    }
+
+    /**
+     * Stops the background refresh; the last table stays in force
+     */
+    @Override
+    public synchronized void close() {
+        if (refresher != null) {
+            refresher.shutdown();
+            refresher = null;
+        }
+    }
+
+    private double multiplierFor(double takenShare) {
+        double multiplier = 1.0;
+        for (int i = 0; i < occupancyThresholds.length && takenShare >= occupancyThresholds[i]; i++) {
+            multiplier = multipliers[i];
+        }
+        return multiplier;
+    }
+}
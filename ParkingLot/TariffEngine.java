@@ -0,0 +1,199 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Fee calculation on primitive timestamps and integer cents.
+ * The hourly rate for every (floor, VehicleType, SpotType) combination is
+ * precomputed into a flat table, so pricing a ticket allocates nothing. An
+ * engine is immutable; surge pricing publishes a new one instead of changing
+ * rates in place.
+ */
+public class TariffEngine {
+    public static final long BASE_RATE_CENTS_PER_HOUR = 500; // $5 per hour base rate
+    public static final long EV_CHARGING_CENTS_PER_HOUR = 200; // $2 per hour for EV charging
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long OFFSET_RECHECK_MILLIS = 60_000L; // Picks up a changed default time zone
+    private static final int SPOT_TYPE_COUNT = SpotType.values().length;
+    private static final int RATES_PER_FLOOR = VehicleType.values().length * SPOT_TYPE_COUNT;
+
+    public static final TariffEngine STANDARD = new TariffEngine(BASE_RATE_CENTS_PER_HOUR);
+
+    private static volatile LocalOffset localOffset = LocalOffset.at(System.currentTimeMillis());
+
+    private final int floorCount;
+    private final long[] centsPerHour;
+    private final double[] surgeMultipliers;
+
+    /**
+     * Builds the rate table from a base hourly rate and the vehicle size and
+     * spot type multipliers; the same rates apply on every floor
+     */
+    public TariffEngine(long baseRateCentsPerHour) {
+        this(baseRateCentsPerHour, 1, null);
+    }
+
+    /**
+     * Builds a rate table with a surge multiplier per floor and spot type,
+     * indexed floor * SpotType count + spot type ordinal (null for none)
+     */
+    public TariffEngine(long baseRateCentsPerHour, int floorCount, double[] surgeMultipliers) {
+        if (floorCount <= 0) {
+            throw new IllegalArgumentException("Floor count must be positive: " + floorCount);
+        }
+        if (surgeMultipliers != null && surgeMultipliers.length != floorCount * SPOT_TYPE_COUNT) {
+            throw new IllegalArgumentException("Expected " + floorCount * SPOT_TYPE_COUNT + " surge multipliers");
+        }
+        this.floorCount = floorCount;
+        this.centsPerHour = new long[floorCount * RATES_PER_FLOOR];
+        this.surgeMultipliers = surgeMultipliers != null ? surgeMultipliers.clone() : null;
+        for (int floor = 0; floor < floorCount; floor++) {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                for (SpotType spotType : SpotType.values()) {
+                    double surge = surgeMultipliers != null
+                            ? surgeMultipliers[floor * SPOT_TYPE_COUNT + spotType.ordinal()] : 1.0;
+                    centsPerHour[index(floor, vehicleType, spotType)] = Math.round(baseRateCentsPerHour
+                            * vehicleType.getSizeMultiplier() * spotType.getPriceMultiplier() * surge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the hourly parking rate (without EV charging) in cents on the
+     * ground floor
+     */
+    public long getHourlyRateCents(VehicleType vehicleType, SpotType spotType) {
+        return getHourlyRateCents(0, vehicleType, spotType);
+    }
+
+    /**
+     * Gets the hourly parking rate (without EV charging) in cents on a floor
+     */
+    public long getHourlyRateCents(int floor, VehicleType vehicleType, SpotType spotType) {
+        return centsPerHour[index(floor, vehicleType, spotType)];
+    }
+
+    /**
+     * Calculates the fee in cents for a stay between two epoch-millisecond
+     * timestamps
+     */
+    public long calculateFeeCents(VehicleType vehicleType, SpotType spotType, long entryEpochMillis,
+            long exitEpochMillis) {
+        return calculateFeeCents(0, vehicleType, spotType, entryEpochMillis, exitEpochMillis);
+    }
+
+    /**
+     * Calculates the fee in cents for a stay on a given floor
+     */
+    public long calculateFeeCents(int floor, VehicleType vehicleType, SpotType spotType, long entryEpochMillis,
+            long exitEpochMillis) {
+        long hours = billableHours(entryEpochMillis, exitEpochMillis);
+        long fee = hours * centsPerHour[index(floor, vehicleType, spotType)];
+        if (spotType == SpotType.ELECTRIC) {
+            fee += hours * EV_CHARGING_CENTS_PER_HOUR;
+        }
+        return fee;
+    }
+
+    /**
+     * Prices the first count tickets as if they exited at asOfEpochMillis,
+     * writing the fees in cents into feesCents. Nothing is allocated per ticket.
+     */
+    public void calculateFeesCents(Ticket[] tickets, int count, long asOfEpochMillis, long[] feesCents) {
+        if (count > tickets.length || count > feesCents.length) {
+            throw new IllegalArgumentException("Count exceeds ticket or fee array length");
+        }
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = tickets[i];
+            ParkingSpot spot = ticket.getAssignedSpot();
+            feesCents[i] = calculateFeeCents(spot.getFloor(), ticket.getVehicle().getType(), spot.getSpotType(),
+                    ticket.getEntryEpochMillis(), asOfEpochMillis);
+        }
+    }
+
+    /**
+     * Whole hours charged for a stay: any started hour counts, with a
+     * minimum of one hour
+     */
+    public static long billableHours(long entryEpochMillis, long exitEpochMillis) {
+        long minutes = (exitEpochMillis - entryEpochMillis) / MILLIS_PER_MINUTE;
+        return Math.max(1, (minutes + 59) / 60);
+    }
+
+    /**
+     * Converts a local timestamp to the epoch-millisecond scale used by the
+     * engine. Only differences between timestamps matter, so UTC is used as a
+     * fixed reference.
+     */
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1_000_000;
+    }
+
+    /**
+     * The current local time on the engine's epoch-millisecond scale, the
+     * same value as toEpochMillis(LocalDateTime.now()) but without allocating:
+     * the zone offset is cached until the next offset transition, and at most
+     * a minute
+     */
+    public static long currentEpochMillis() {
+        long nowMillis = System.currentTimeMillis();
+        LocalOffset offset = localOffset;
+        if (nowMillis < offset.validFromMillis || nowMillis >= offset.validUntilMillis) {
+            offset = LocalOffset.at(nowMillis);
+            localOffset = offset;
+        }
+        return nowMillis + offset.offsetMillis;
+    }
+
+    /**
+     * Gets the surge multiplier built into the rates of a floor and spot type
+     */
+    public double getSurgeMultiplier(int floor, SpotType spotType) {
+        int row = floorCount > 1 ? floor : 0;
+        return surgeMultipliers != null ? surgeMultipliers[row * SPOT_TYPE_COUNT + spotType.ordinal()] : 1.0;
+    }
+
+    public int getFloorCount() {
+        return floorCount;
+    }
+
+    /**
+     * Table index of a rate; a single-floor table serves every floor
+     */
+    private int index(int floor, VehicleType vehicleType, SpotType spotType) {
+        int row = floorCount > 1 ? floor : 0;
+        return row * RATES_PER_FLOOR + vehicleType.ordinal() * SPOT_TYPE_COUNT + spotType.ordinal();
+    }
+
+    /**
+     * Offset of the default time zone over a span of instants in which it
+     * does not change
+     */
+    private static final class LocalOffset {
+        private final long offsetMillis;
+        private final long validFromMillis;
+        private final long validUntilMillis;
+
+        private LocalOffset(long offsetMillis, long validFromMillis, long validUntilMillis) {
+            this.offsetMillis = offsetMillis;
+            this.validFromMillis = validFromMillis;
+            this.validUntilMillis = validUntilMillis;
+        }
+
+        private static LocalOffset at(long nowMillis) {
+            ZoneRules rules = ZoneId.systemDefault().getRules();
+            Instant now = Instant.ofEpochMilli(nowMillis);
+            ZoneOffsetTransition next = rules.nextTransition(now);
+            long validUntil = nowMillis + OFFSET_RECHECK_MILLIS;
+            if (next != null) {
+                validUntil = Math.min(validUntil, next.toEpochSecond() * 1000);
+            }
+            return new LocalOffset(rules.getOffset(now).getTotalSeconds() * 1000L, nowMillis, validUntil);
+        }
+    }
+}
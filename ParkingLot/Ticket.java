@@ -9,82 +9,106 @@ public class Ticket {
     private final Vehicle vehicle;
     private final ParkingSpot assignedSpot;
     private final LocalDateTime entryTime;
+    private final long entryEpochMillis;
     private final String entryGateId;
-    private LocalDateTime exitTime;
-    private String exitGateId;
-    private double totalAmount;
-    private boolean isPaid;
+    private volatile LocalDateTime exitTime;
+    private volatile String exitGateId;
+    private volatile double totalAmount;
+    private volatile boolean isPaid;
+    private volatile double amountPaid;
+    private volatile TariffEngine paidTariff; // Rates in force when paid; null if unknown
     private boolean hasEVCharging;
+    private int indexSlot; // Position in the owning TicketManager's TicketIndex
 
     public Ticket(String ticketId, Vehicle vehicle, ParkingSpot assignedSpot, String entryGateId) {
+        this(ticketId, vehicle, assignedSpot, entryGateId, LocalDateTime.now(), null, null, 0.0, false);
+    }
+
+    /**
+     * Restores a ticket with its recorded state (used when reading archived
+     * tickets back from disk)
+     */
+    Ticket(String ticketId, Vehicle vehicle, ParkingSpot assignedSpot, String entryGateId,
+            LocalDateTime entryTime, LocalDateTime exitTime, String exitGateId, double totalAmount, boolean isPaid) {
         this.ticketId = ticketId;
         this.vehicle = vehicle;
         this.assignedSpot = assignedSpot;
-        this.entryTime = LocalDateTime.now();
+        this.entryTime = entryTime;
+        this.entryEpochMillis = TariffEngine.toEpochMillis(entryTime);
         this.entryGateId = entryGateId;
-        this.exitTime = null;
-        this.exitGateId = null;
-        this.totalAmount = 0.0;
-        this.isPaid = false;
+        this.exitTime = exitTime;
+        this.exitGateId = exitGateId;
+        this.totalAmount = totalAmount;
+        this.isPaid = isPaid;
+        this.amountPaid = isPaid ? totalAmount : 0.0;
         this.hasEVCharging = assignedSpot.getSpotType() == SpotType.ELECTRIC;
+        this.indexSlot = -1;
     }
 
     /**
      * Calculates parking fee based on duration, vehicle type, spot type, and EV
      * charging
      */
-    public double calculateParkingFee() {
+    public synchronized double calculateParkingFee() {
+        return calculateParkingFee(TariffEngine.STANDARD);
+    }
+
+    /**
+     * Calculates the parking fee with the given rate table
+     */
+    synchronized double calculateParkingFee(TariffEngine tariffEngine) {
         if (exitTime == null) {
             exitTime = LocalDateTime.now();
         }
 
-        Duration parkingDuration = Duration.between(entryTime, exitTime);
-        long hours = parkingDuration.toHours();
-        if (parkingDuration.toMinutesPart() > 0) {
-            hours++; // Round up to next hour
-        }
-
-        // Minimum 1 hour charge
-        if (hours == 0) {
-            hours = 1;
-        }
-
-        // Base rate per hour
-        double baseRate = 5.0; // $5 per hour base rate
-
-        // Apply vehicle type multiplier
-        double vehicleMultiplier = vehicle.getType().getSizeMultiplier();
-
-        // Apply spot type multiplier
-        double spotMultiplier = assignedSpot.getSpotType().getPriceMultiplier();
-
-        // Calculate base parking fee
-        double parkingFee = baseRate * hours * vehicleMultiplier * spotMultiplier;
-
-        // Add EV charging fee if applicable
-        double evChargingFee = 0.0;
-        if (hasEVCharging) {
-            evChargingFee = hours * 2.0; // $2 per hour for EV charging
-        }
-
-        totalAmount = parkingFee + evChargingFee;
+        long feeCents = tariffEngine.calculateFeeCents(assignedSpot.getFloor(), vehicle.getType(),
+                assignedSpot.getSpotType(), entryEpochMillis, TariffEngine.toEpochMillis(exitTime));
+        totalAmount = feeCents / 100.0;
         return totalAmount;
     }
 
     /**
      * Marks the ticket as paid
      */
-    public void markAsPaid() {
+    public synchronized void markAsPaid() {
+        markAsPaid(null, totalAmount);
+    }
+
+    /**
+     * Marks the ticket as paid with the amount collected and the rate table
+     * it was priced with, so the stay is priced with the same rates at exit
+     */
+    synchronized void markAsPaid(TariffEngine tariffEngine, double amountPaid) {
         this.isPaid = true;
+        this.amountPaid = amountPaid;
+        this.paidTariff = tariffEngine;
     }
 
     /**
      * Completes the parking session
      */
-    public void completeParking(String exitGateId) {
-        this.exitTime = LocalDateTime.now();
+    public synchronized void completeParking(String exitGateId) {
+        completeParking(exitGateId, LocalDateTime.now(), TariffEngine.STANDARD);
+    }
+
+    /**
+     * Completes the parking session at a given exit time, priced with the
+     * given rate table
+     */
+    synchronized void completeParking(String exitGateId, LocalDateTime exitTime, TariffEngine tariffEngine) {
+        this.exitTime = exitTime;
+        this.exitGateId = exitGateId;
+        calculateParkingFee(tariffEngine);
+    }
+
+    /**
+     * Completes the parking session with the amount that was charged at the
+     * time (used when replaying a journal, where today's rates may differ)
+     */
+    synchronized void completeParking(String exitGateId, LocalDateTime exitTime, double chargedAmount) {
+        this.exitTime = exitTime;
         this.exitGateId = exitGateId;
-        calculateParkingFee();
+        this.totalAmount = chargedAmount;
     }
 
     /**
@@ -112,11 +136,27 @@ public class Ticket {
         return exitTime == null;
     }
 
+    int getIndexSlot() {
+        return indexSlot;
+    }
+
+    void setIndexSlot(int indexSlot) {
+        this.indexSlot = indexSlot;
+    }
+
     // Getters
     public String getTicketId() {
         return ticketId;
     }
 
+    /**
+     * 64-bit form of the ticket ID for internal maps, or -1 if the ID was not
+     * issued by a TicketIdGenerator
+     */
+    public long getNumericId() {
+        return TicketIdGenerator.toNumericId(ticketId);
+    }
+
     public Vehicle getVehicle() {
         return vehicle;
     }
@@ -129,6 +169,10 @@ public class Ticket {
         return entryTime;
     }
 
+    public long getEntryEpochMillis() {
+        return entryEpochMillis;
+    }
+
     public LocalDateTime getExitTime() {
         return exitTime;
     }
@@ -149,6 +193,23 @@ public class Ticket {
         return isPaid;
     }
 
+    public double getAmountPaid() {
+        return amountPaid;
+    }
+
+    /**
+     * Amount still owed: the whole fee for an unpaid ticket, or what a stay
+     * that went on after payment added to it
+     */
+    public double getAmountDue() {
+        long dueCents = Math.round(totalAmount * 100) - Math.round(amountPaid * 100);
+        return Math.max(0, dueCents) / 100.0;
+    }
+
+    TariffEngine getPaidTariff() {
+        return paidTariff;
+    }
+
     public boolean hasEVCharging() {
         return hasEVCharging;
     }
@@ -0,0 +1,189 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only on-disk log of completed tickets.
+ * Each record is length-prefixed compact binary. The only state kept in
+ * memory is a primitive hash index (ticket ID hash to file offset), so an
+ * archived ticket costs about 12 bytes of heap instead of a full object graph.
+ */
+public class TicketArchive implements Closeable {
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+    private static final int MAX_RECORD_SIZE = 64 * 1024; // Far above any encoded ticket
+
+    private final FileChannel channel;
+    private final boolean syncEachRecord;
+    private int[] indexHashes;
+    private long[] indexOffsets; // offset + 1, so 0 marks an empty slot
+    private int indexSize;
+    private long writePosition;
+
+    /**
+     * Opens (or creates) the archive file and rebuilds the ID index from the
+     * records already on disk
+     */
+    public TicketArchive(Path file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * Opens (or creates) the archive file. With syncEachRecord every append is
+     * forced to disk before it returns; otherwise the OS decides when.
+     */
+    public TicketArchive(Path file, boolean syncEachRecord) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.syncEachRecord = syncEachRecord;
+        this.indexHashes = new int[INITIAL_INDEX_CAPACITY];
+        this.indexOffsets = new long[INITIAL_INDEX_CAPACITY];
+        this.indexSize = 0;
+        this.writePosition = 0;
+        rebuildIndex();
+    }
+
+    /**
+     * Appends a completed ticket to the log
+     */
+    public synchronized void append(Ticket ticket) {
+        byte[] record = encode(ticket);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length);
+        buffer.putInt(record.length).put(record).flip();
+        try {
+            long offset = writePosition;
+            while (buffer.hasRemaining()) {
+                writePosition += channel.write(buffer, writePosition);
+            }
+            if (syncEachRecord) {
+                channel.force(false);
+            }
+            addToIndex(ticket.getTicketId().hashCode(), offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive ticket " + ticket.getTicketId(), e);
+        }
+    }
+
+    /**
+     * Looks up an archived ticket by ID, reading it back from disk
+     */
+    public synchronized Ticket find(String ticketId) {
+        int hash = ticketId.hashCode();
+        int mask = indexHashes.length - 1;
+        for (int slot = hash & mask; indexOffsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (indexHashes[slot] == hash) {
+                Ticket ticket = readAt(indexOffsets[slot] - 1);
+                if (ticket.getTicketId().equals(ticketId)) {
+                    return ticket;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of archived tickets
+     */
+    public synchronized int size() {
+        return indexSize;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Indexes every complete record and cuts off a torn write at the tail, so
+     * later appends never follow a length prefix that points into garbage
+     */
+    private void rebuildIndex() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        while (writePosition + Integer.BYTES <= fileSize) {
+            lengthBuffer.clear();
+            readFully(lengthBuffer, writePosition);
+            int length = lengthBuffer.flip().getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || writePosition + Integer.BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(record, writePosition + Integer.BYTES);
+            Ticket ticket;
+            try {
+                ticket = decode(record.array());
+            } catch (IOException | RuntimeException e) {
+                break; // A length that happened to fit, followed by garbage
+            }
+            addToIndex(ticket.getTicketId().hashCode(), writePosition);
+            writePosition += Integer.BYTES + length;
+        }
+        if (writePosition < fileSize) {
+            channel.truncate(writePosition); // Torn write at the tail
+        }
+    }
+
+    private void addToIndex(int hash, long offset) {
+        if ((indexSize + 1) * 2 > indexHashes.length) {
+            growIndex();
+        }
+        int mask = indexHashes.length - 1;
+        int slot = hash & mask;
+        while (indexOffsets[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        indexHashes[slot] = hash;
+        indexOffsets[slot] = offset + 1;
+        indexSize++;
+    }
+
+    private void growIndex() {
+        int[] oldHashes = indexHashes;
+        long[] oldOffsets = indexOffsets;
+        indexHashes = new int[oldHashes.length * 2];
+        indexOffsets = new long[oldOffsets.length * 2];
+        indexSize = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldOffsets[i] != 0) {
+                addToIndex(oldHashes[i], oldOffsets[i] - 1);
+            }
+        }
+    }
+
+    private Ticket readAt(long offset) {
+        try {
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+            readFully(lengthBuffer, offset);
+            ByteBuffer record = ByteBuffer.allocate(lengthBuffer.flip().getInt());
+            readFully(record, offset + Integer.BYTES);
+            return decode(record.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived ticket at offset " + offset, e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of ticket archive");
+            }
+        }
+    }
+
+    private static byte[] encode(Ticket ticket) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ParkingCodec.writeTicket(out, ticket);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Ticket decode(byte[] record) throws IOException {
+        // The spot is a detached copy; archived tickets never touch live spots
+        return ParkingCodec.readTicket(new DataInputStream(new ByteArrayInputStream(record)), null);
+    }
+}
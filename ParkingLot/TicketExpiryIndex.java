@@ -0,0 +1,128 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * Incrementally maintained set of active tickets that have been parked for at
+ * least a threshold (overdue, unpaid after the grace period).
+ * Tickets are bucketed by entry hour. Advancing the clock only visits the
+ * buckets whose tickets can have crossed the threshold since the last
+ * advance; buckets that are fully behind it are dropped once swept.
+ */
+public class TicketExpiryIndex {
+    private static final long BUCKET_MILLIS = 3_600_000L;
+
+    private final long thresholdMillis;
+    private final Predicate<Ticket> stillDue;
+    private final ConcurrentSkipListMap<Long, Set<Ticket>> bucketsByEntryHour;
+    private final Set<Ticket> expired;
+    private final Queue<Ticket> newlyExpired;
+
+    /**
+     * Tracks tickets that reach thresholdMillis of parking time while the
+     * predicate still holds for them (for example "still active and not paid
+     * yet")
+     */
+    public TicketExpiryIndex(long thresholdMillis, Predicate<Ticket> stillDue) {
+        this.thresholdMillis = thresholdMillis;
+        this.stillDue = stillDue;
+        this.bucketsByEntryHour = new ConcurrentSkipListMap<>();
+        this.expired = ConcurrentHashMap.newKeySet();
+        this.newlyExpired = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Starts tracking an active ticket
+     */
+    public void add(Ticket ticket) {
+        long bucketKey = bucketOf(ticket.getEntryEpochMillis());
+        while (true) {
+            Set<Ticket> bucket = bucketsByEntryHour.computeIfAbsent(bucketKey, key -> ConcurrentHashMap.newKeySet());
+            bucket.add(ticket);
+            // A bucket swept and dropped concurrently may have missed the add
+            if (bucketsByEntryHour.get(bucketKey) == bucket) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops tracking a ticket (completed, or no longer due)
+     */
+    public void remove(Ticket ticket) {
+        Set<Ticket> bucket = bucketsByEntryHour.get(bucketOf(ticket.getEntryEpochMillis()));
+        if (bucket != null) {
+            bucket.remove(ticket);
+        }
+        expired.remove(ticket);
+    }
+
+    /**
+     * Gets every tracked ticket that has crossed the threshold as of nowMillis
+     */
+    public List<Ticket> getExpired(long nowMillis) {
+        advance(nowMillis);
+        List<Ticket> result = new ArrayList<>(expired.size());
+        for (Ticket ticket : expired) {
+            if (isDue(ticket)) {
+                result.add(ticket);
+            } else {
+                expired.remove(ticket);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the tickets that crossed the threshold since the previous poll
+     */
+    public List<Ticket> pollNewlyExpired(long nowMillis) {
+        advance(nowMillis);
+        List<Ticket> result = new ArrayList<>();
+        Ticket ticket;
+        while ((ticket = newlyExpired.poll()) != null) {
+            if (isDue(ticket)) {
+                result.add(ticket);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves every ticket that entered at or before nowMillis - threshold into
+     * the expired set. Only the bucket holding that boundary is revisited on
+     * the next advance; the ones before it are dropped.
+     */
+    private synchronized void advance(long nowMillis) {
+        long latestEntry = nowMillis - thresholdMillis;
+        long boundaryBucket = bucketOf(latestEntry);
+        Iterator<Map.Entry<Long, Set<Ticket>>> buckets = bucketsByEntryHour.headMap(boundaryBucket, true)
+                .entrySet().iterator();
+        while (buckets.hasNext()) {
+            Map.Entry<Long, Set<Ticket>> bucket = buckets.next();
+            sweep(bucket.getValue(), latestEntry);
+            if (bucket.getKey() < boundaryBucket && bucketsByEntryHour.remove(bucket.getKey(), bucket.getValue())) {
+                // Catch tickets added while the bucket was being swept
+                sweep(bucket.getValue(), latestEntry);
+            }
+        }
+    }
+
+    private void sweep(Set<Ticket> bucket, long latestEntry) {
+        for (Ticket ticket : bucket) {
+            if (ticket.getEntryEpochMillis() <= latestEntry && isDue(ticket) && expired.add(ticket)) {
+                newlyExpired.offer(ticket);
+            }
+        }
+    }
+
+    private boolean isDue(Ticket ticket) {
+        return stillDue.test(ticket);
+    }
+
+    private static long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, BUCKET_MILLIS);
+    }
+}
@@ -0,0 +1,88 @@
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark for ticket ID generation with several gates issuing IDs at once:
+ * the original LocalDateTime.format plus String.format scheme against
+ * TicketIdGenerator's string and 64-bit numeric forms
+ */
+public class TicketIdBenchmark {
+    private static final int IDS_PER_ROUND = 2_000_000;
+    private static final int[] GATE_COUNTS = { 1, 2, 4, 8 };
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== TICKET ID BENCHMARK ===");
+        System.out.println(String.format("%,d IDs per run, %d CPU(s)%n", IDS_PER_ROUND,
+                Runtime.getRuntime().availableProcessors()));
+        System.out.println(String.format("%-8s %16s %16s %16s %10s", "Gates", "Format ns/ID", "Generator ns/ID",
+                "Numeric ns/ID", "Speedup"));
+
+        // The first round only warms up the JIT
+        for (boolean report : new boolean[] { false, true }) {
+            for (int gates : GATE_COUNTS) {
+                LegacyIds legacy = new LegacyIds();
+                double formatNanos = measure(gates, legacy::next);
+                TicketIdGenerator generator = new TicketIdGenerator();
+                double generatorNanos = measure(gates, generator::nextTicketId);
+                TicketIdGenerator numericGenerator = new TicketIdGenerator();
+                double numericNanos = measure(gates, numericGenerator::nextNumericId);
+                if (report) {
+                    System.out.println(String.format("%-8d %16.1f %16.1f %16.1f %9.2fx", gates, formatNanos,
+                            generatorNanos, numericNanos, formatNanos / generatorNanos));
+                }
+            }
+        }
+    }
+
+    /**
+     * Wall-clock nanoseconds per ID with the given number of gate threads
+     * sharing one generator
+     */
+    private static double measure(int gates, IdSource source) throws InterruptedException {
+        int idsPerGate = IDS_PER_ROUND / gates;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(gates);
+        for (int gate = 0; gate < gates; gate++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                Object last = null;
+                for (int i = 0; i < idsPerGate; i++) {
+                    last = source.next();
+                }
+                sink = last;
+                done.countDown();
+            }, "gate-" + gate);
+            thread.start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (double) (System.nanoTime() - startNanos) / (idsPerGate * gates);
+    }
+
+    private interface IdSource {
+        Object next();
+    }
+
+    /**
+     * The scheme TicketManager used before TicketIdGenerator
+     */
+    private static final class LegacyIds {
+        private final AtomicInteger ticketCounter = new AtomicInteger(1);
+        private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+        private String next() {
+            String datePrefix = LocalDateTime.now().format(formatter);
+            return String.format("TKT-%s-%04d", datePrefix, ticketCounter.getAndIncrement());
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues ticket IDs of the form TKT-yyyyMMdd-NNNN, where the sequence
+ * restarts at 1 every day and is at least four digits wide. The date prefix
+ * is built once per day, the sequence is a single atomic counter and the ID
+ * is assembled in a per-thread buffer, so issuing an ID costs a clock read,
+ * one atomic increment and the final String.
+ *
+ * Every ID also has a 64-bit numeric form (epoch day in the high 32 bits,
+ * sequence in the low 32 bits) for maps that should not hash strings.
+ */
+public class TicketIdGenerator {
+    private static final byte[] PREFIX = "TKT-".getBytes(StandardCharsets.US_ASCII);
+    private static final int DATE_LENGTH = 8;
+    private static final int PREFIX_LENGTH = PREFIX.length + DATE_LENGTH + 1;
+    private static final int MIN_SEQUENCE_DIGITS = 4;
+    private static final int MAX_SEQUENCE_DIGITS = 10;
+    private static final long SEQUENCE_MASK = 0xFFFF_FFFFL;
+
+    private final Clock clock;
+    private final ThreadLocal<byte[]> buffers;
+    private volatile Day currentDay;
+
+    public TicketIdGenerator() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a generator whose days follow the given clock and its time zone
+     */
+    public TicketIdGenerator(Clock clock) {
+        this.clock = clock;
+        this.buffers = ThreadLocal.withInitial(() -> new byte[PREFIX_LENGTH + MAX_SEQUENCE_DIGITS]);
+        this.currentDay = new Day(LocalDate.now(clock), clock);
+    }
+
+    /**
+     * Issues the next ticket ID
+     */
+    public String nextTicketId() {
+        Day day = today();
+        return format(day, day.sequence.getAndIncrement());
+    }
+
+    /**
+     * Issues the next ticket ID in its numeric form
+     */
+    public long nextNumericId() {
+        Day day = today();
+        return pack(day.epochDay, day.sequence.getAndIncrement());
+    }
+
+    /**
+     * Converts a numeric ID to its TKT-yyyyMMdd-NNNN form
+     */
+    public String toTicketId(long numericId) {
+        long epochDay = numericId >> 32;
+        Day day = currentDay;
+        if (day.epochDay != epochDay) {
+            day = new Day(LocalDate.ofEpochDay(epochDay), clock);
+        }
+        return format(day, (int) (numericId & SEQUENCE_MASK));
+    }
+
+    /**
+     * Numeric form of a TKT-yyyyMMdd-NNNN ticket ID, or -1 if the ID does not
+     * have that form
+     */
+    public static long toNumericId(String ticketId) {
+        int length = ticketId.length();
+        if (length < PREFIX_LENGTH + MIN_SEQUENCE_DIGITS || length > PREFIX_LENGTH + MAX_SEQUENCE_DIGITS
+                || !ticketId.startsWith("TKT-") || ticketId.charAt(PREFIX_LENGTH - 1) != '-') {
+            return -1;
+        }
+        long date = parseDigits(ticketId, PREFIX.length, PREFIX_LENGTH - 1);
+        long sequence = parseDigits(ticketId, PREFIX_LENGTH, length);
+        if (date < 0 || sequence < 0 || sequence > SEQUENCE_MASK) {
+            return -1;
+        }
+        int month = (int) (date / 100 % 100);
+        int dayOfMonth = (int) (date % 100);
+        if (month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > 31) {
+            return -1;
+        }
+        try {
+            return pack(LocalDate.of((int) (date / 10_000), month, dayOfMonth).toEpochDay(), (int) sequence);
+        } catch (DateTimeException e) {
+            return -1; // For example February 30th
+        }
+    }
+
+    /**
+     * Gets the sequence number the next ID issued today will carry
+     */
+    public int getNextSequence() {
+        return today().sequence.get();
+    }
+
+    /**
+     * Moves today's sequence forward so restored IDs are never reissued
+     */
+    public void advanceSequence(int nextSequence) {
+        today().sequence.accumulateAndGet(nextSequence, Math::max);
+    }
+
+    private Day today() {
+        Day day = currentDay;
+        if (clock.millis() < day.endMillis) {
+            return day;
+        }
+        return rollOver(day);
+    }
+
+    /**
+     * Starts a new day with its own prefix and a sequence back at 1. Gates
+     * still holding the old day finish on its sequence, so IDs stay unique.
+     */
+    private synchronized Day rollOver(Day staleDay) {
+        Day day = currentDay;
+        if (day != staleDay) {
+            return day;
+        }
+        LocalDate date = LocalDate.now(clock);
+        if (date.toEpochDay() <= day.epochDay) {
+            return day; // Clock at the boundary or set back; keep the later day
+        }
+        day = new Day(date, clock);
+        currentDay = day;
+        return day;
+    }
+
+    private String format(Day day, int sequence) {
+        byte[] buffer = buffers.get();
+        System.arraycopy(day.prefix, 0, buffer, 0, PREFIX_LENGTH);
+        long value = sequence & SEQUENCE_MASK;
+        int digits = Math.max(MIN_SEQUENCE_DIGITS, digitCount(value));
+        int position = PREFIX_LENGTH + digits;
+        for (int i = 0; i < digits; i++) {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(buffer, 0, PREFIX_LENGTH + digits, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static long parseDigits(String text, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static long pack(long epochDay, int sequence) {
+        return (epochDay << 32) | (sequence & SEQUENCE_MASK);
+    }
+
+    /**
+     * One calendar day: its ID prefix, the instant it ends and its sequence
+     */
+    private static final class Day {
+        private final long epochDay;
+        private final long endMillis;
+        private final byte[] prefix;
+        private final AtomicInteger sequence;
+
+        private Day(LocalDate date, Clock clock) {
+            this.epochDay = date.toEpochDay();
+            this.endMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+            this.prefix = new byte[PREFIX_LENGTH];
+            System.arraycopy(PREFIX, 0, prefix, 0, PREFIX.length);
+            int value = date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+            for (int i = PREFIX.length + DATE_LENGTH - 1; i >= PREFIX.length; i--) {
+                prefix[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            prefix[PREFIX_LENGTH - 1] = '-';
+            this.sequence = new AtomicInteger(1);
+        }
+    }
+}
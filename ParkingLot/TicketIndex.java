@@ -0,0 +1,285 @@
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary indexes over the tickets a TicketManager holds in memory, for
+ * analytics queries that would otherwise scan every ticket.
+ * Each ticket gets a slot number in registration order. Vehicle type, spot
+ * type, entry and exit gate, paid and completed are bitmaps over slots;
+ * entry days are sorted slot lists, since each day only covers a short run
+ * of slots. A query intersects the bitmaps. Slots of removed (archived)
+ * tickets are reclaimed by renumbering once half the slots are dead.
+ * Bits are only cleared at the low end, by removal: BitSet.clear rescans
+ * down from its highest set bit, so clearing recent slots in a mostly empty
+ * bitmap would cost O(slots).
+ */
+class TicketIndex {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int MIN_COMPACT_SLOTS = 1024;
+
+    private final ReentrantReadWriteLock lock;
+    private Ticket[] tickets;
+    private int nextSlot;
+    private int liveCount;
+    private BitSet live;
+    private BitSet completed;
+    private BitSet paid;
+    private BitSet[] byVehicleType;
+    private BitSet[] bySpotType;
+    private Map<String, BitSet> byEntryGate;
+    private Map<String, BitSet> byExitGate;
+    private NavigableMap<Long, SlotList> byEntryDay;
+
+    TicketIndex() {
+        this.lock = new ReentrantReadWriteLock();
+        clear(MIN_COMPACT_SLOTS);
+    }
+
+    /**
+     * Indexes a ticket that is still parked (active) or already completed
+     */
+    void add(Ticket ticket, boolean isActive) {
+        lock.writeLock().lock();
+        try {
+            if (ticket.getIndexSlot() < 0) {
+                insert(ticket, isActive);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void markPaid(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            int slot = ticket.getIndexSlot();
+            if (slot >= 0) {
+                paid.set(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void markCompleted(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            int slot = ticket.getIndexSlot();
+            if (slot >= 0) {
+                completed.set(slot);
+                if (ticket.getExitGateId() != null) {
+                    byExitGate.computeIfAbsent(ticket.getExitGateId(), gateId -> new BitSet()).set(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops a ticket that left memory (moved to the archive)
+     */
+    void remove(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            int slot = ticket.getIndexSlot();
+            if (slot < 0) {
+                return;
+            }
+            ticket.setIndexSlot(-1);
+            tickets[slot] = null;
+            live.clear(slot);
+            completed.clear(slot);
+            paid.clear(slot);
+            byVehicleType[ticket.getVehicle().getType().ordinal()].clear(slot);
+            bySpotType[ticket.getAssignedSpot().getSpotType().ordinal()].clear(slot);
+            clearGate(byEntryGate, ticket.getEntryGateId(), slot);
+            clearGate(byExitGate, ticket.getExitGateId(), slot);
+            // Entry-day lists keep the dead slot; queries mask it with live
+            liveCount--;
+            if (nextSlot >= MIN_COMPACT_SLOTS && liveCount < nextSlot / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Ticket> find(TicketQuery query) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(query);
+            List<Ticket> result = new ArrayList<>(matches.cardinality());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                result.add(tickets[slot]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int count(TicketQuery query) {
+        lock.readLock().lock();
+        try {
+            return match(query).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet match(TicketQuery query) {
+        BitSet result = (BitSet) live.clone();
+        if (query.getVehicleTypes() != null) {
+            BitSet any = new BitSet();
+            for (VehicleType vehicleType : query.getVehicleTypes()) {
+                any.or(byVehicleType[vehicleType.ordinal()]);
+            }
+            result.and(any);
+        }
+        if (query.getSpotTypes() != null) {
+            BitSet any = new BitSet();
+            for (SpotType spotType : query.getSpotTypes()) {
+                any.or(bySpotType[spotType.ordinal()]);
+            }
+            result.and(any);
+        }
+        if (query.getEntryGateIds() != null) {
+            result.and(anyGate(byEntryGate, query.getEntryGateIds()));
+        }
+        if (query.getExitGateIds() != null) {
+            result.and(anyGate(byExitGate, query.getExitGateIds()));
+        }
+        if (query.getEnteredFrom() != null) {
+            BitSet entered = new BitSet();
+            for (SlotList day : byEntryDay.subMap(query.getEnteredFrom().toEpochDay(), true,
+                    query.getEnteredTo().toEpochDay(), true).values()) {
+                for (int i = 0; i < day.size; i++) {
+                    entered.set(day.slots[i]);
+                }
+            }
+            result.and(entered);
+        }
+        if (query.getPaid() != null) {
+            if (query.getPaid()) {
+                result.and(paid);
+            } else {
+                result.andNot(paid);
+            }
+        }
+        if (query.getActive() != null) {
+            if (query.getActive()) {
+                result.andNot(completed);
+            } else {
+                result.and(completed);
+            }
+        }
+        return result;
+    }
+
+    private void insert(Ticket ticket, boolean isActive) {
+        if (nextSlot == tickets.length) {
+            tickets = Arrays.copyOf(tickets, tickets.length * 2);
+        }
+        int slot = nextSlot++;
+        tickets[slot] = ticket;
+        ticket.setIndexSlot(slot);
+        liveCount++;
+        live.set(slot);
+        if (!isActive) {
+            completed.set(slot);
+        }
+        if (!isActive && ticket.getExitGateId() != null) {
+            byExitGate.computeIfAbsent(ticket.getExitGateId(), gateId -> new BitSet()).set(slot);
+        }
+        if (ticket.isPaid()) {
+            paid.set(slot);
+        }
+        byVehicleType[ticket.getVehicle().getType().ordinal()].set(slot);
+        bySpotType[ticket.getAssignedSpot().getSpotType().ordinal()].set(slot);
+        if (ticket.getEntryGateId() != null) {
+            byEntryGate.computeIfAbsent(ticket.getEntryGateId(), gateId -> new BitSet()).set(slot);
+        }
+        long entryDay = Math.floorDiv(ticket.getEntryEpochMillis(), MILLIS_PER_DAY);
+        byEntryDay.computeIfAbsent(entryDay, day -> new SlotList()).add(slot);
+    }
+
+    /**
+     * Renumbers the live tickets from slot 0, in their current order
+     */
+    private void compact() {
+        Ticket[] oldTickets = tickets;
+        BitSet oldLive = live;
+        BitSet oldCompleted = completed;
+        clear(Math.max(MIN_COMPACT_SLOTS, liveCount * 2));
+        for (int slot = oldLive.nextSetBit(0); slot >= 0; slot = oldLive.nextSetBit(slot + 1)) {
+            Ticket ticket = oldTickets[slot];
+            ticket.setIndexSlot(-1);
+            insert(ticket, !oldCompleted.get(slot));
+        }
+    }
+
+    private void clear(int capacity) {
+        tickets = new Ticket[capacity];
+        nextSlot = 0;
+        liveCount = 0;
+        live = new BitSet();
+        completed = new BitSet();
+        paid = new BitSet();
+        byVehicleType = new BitSet[VehicleType.values().length];
+        for (int i = 0; i < byVehicleType.length; i++) {
+            byVehicleType[i] = new BitSet();
+        }
+        bySpotType = new BitSet[SpotType.values().length];
+        for (int i = 0; i < bySpotType.length; i++) {
+            bySpotType[i] = new BitSet();
+        }
+        byEntryGate = new HashMap<>();
+        byExitGate = new HashMap<>();
+        byEntryDay = new TreeMap<>();
+    }
+
+    private static BitSet anyGate(Map<String, BitSet> byGate, Set<String> gateIds) {
+        BitSet any = new BitSet();
+        for (String gateId : gateIds) {
+            BitSet slots = byGate.get(gateId);
+            if (slots != null) {
+                any.or(slots);
+            }
+        }
+        return any;
+    }
+
+    private static void clearGate(Map<String, BitSet> byGate, String gateId, int slot) {
+        if (gateId != null) {
+            BitSet slots = byGate.get(gateId);
+            if (slots != null) {
+                slots.clear(slot);
+            }
+        }
+    }
+
+    /**
+     * Growable sorted list of slots; slots are appended in increasing order
+     */
+    private static final class SlotList {
+        private int[] slots = new int[8];
+        private int size;
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
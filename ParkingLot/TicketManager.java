@@ -1,33 +1,138 @@
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
- * TicketManager class to manage parking tickets and pricing
+ * TicketManager class to manage parking tickets and pricing.
+ * Safe for concurrent use by multiple gates. With a TicketArchive attached,
+ * only the most recently completed tickets stay in memory and older ones are
+ * moved to disk.
  */
 public class TicketManager {
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long OVERDUE_HOURS = 24;
+    private static final long UNPAID_GRACE_HOURS = 1;
+
     private final Map<String, Ticket> activeTickets;
     private final Map<String, Ticket> completedTickets;
-    private int ticketCounter;
-    private final DateTimeFormatter formatter;
+    private final Queue<String> completionOrder;
+    private final AtomicLong completedCount;
+    private final TicketArchive archive;
+    private final int recentWindowSize;
+    private final Map<String, Ticket> activeTicketsByPlate;
+    private final AtomicIntegerArray activeCountByVehicleType;
+    private final DoubleAdder totalRevenue;
+    private final DoubleAdder evChargingRevenue;
+    private final TicketIdGenerator ticketIdGenerator;
+    private final TicketExpiryIndex overdueIndex;
+    private final TicketExpiryIndex unpaidIndex;
+    private final TicketIndex ticketIndex;
+    private volatile SurgePricing pricing;
 
     public TicketManager() {
-        this.activeTickets = new HashMap<>();
-        this.completedTickets = new HashMap<>();
-        this.ticketCounter = 1;
-        this.formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a ticket manager that keeps at most recentWindowSize completed
+     * tickets in memory and appends older ones to the given archive
+     */
+    public TicketManager(TicketArchive archive, int recentWindowSize) {
+        if (recentWindowSize < 0) {
+            throw new IllegalArgumentException("Recent window size cannot be negative");
+        }
+        this.activeTickets = new ConcurrentHashMap<>();
+        this.completedTickets = new ConcurrentHashMap<>();
+        this.completionOrder = new ConcurrentLinkedQueue<>();
+        this.completedCount = new AtomicLong(0);
+        this.archive = archive;
+        this.recentWindowSize = recentWindowSize;
+        this.activeTicketsByPlate = new ConcurrentHashMap<>();
+        this.activeCountByVehicleType = new AtomicIntegerArray(VehicleType.values().length);
+        this.totalRevenue = new DoubleAdder();
+        this.evChargingRevenue = new DoubleAdder();
+        this.ticketIdGenerator = new TicketIdGenerator();
+        // Thresholds match the original scans: more than 24 whole hours parked,
+        // and unpaid for at least one whole hour
+        this.overdueIndex = new TicketExpiryIndex((OVERDUE_HOURS + 1) * MILLIS_PER_HOUR,
+                ticket -> activeTickets.containsKey(ticket.getTicketId()));
+        this.unpaidIndex = new TicketExpiryIndex(UNPAID_GRACE_HOURS * MILLIS_PER_HOUR,
+                ticket -> !ticket.isPaid() && activeTickets.containsKey(ticket.getTicketId()));
+        this.ticketIndex = new TicketIndex();
     }
 
     /**
      * Generates a new ticket for a vehicle
+     *
+     * @throws IllegalStateException if the vehicle already holds an active ticket
      */
     public Ticket generateTicket(Vehicle vehicle, ParkingSpot spot, String entryGateId) {
-        String ticketId = generateTicketId();
+        return generateTicket(vehicle, spot, entryGateId, null);
+    }
+
+    /**
+     * Generates a new ticket, handing it to beforePublish once the plate is
+     * claimed but before exits and queries can see it. The lot journals the
+     * park there, so the PARK record always precedes any record that refers
+     * to the ticket. If beforePublish throws, the plate is released again.
+     *
+     * @throws IllegalStateException if the vehicle already holds an active ticket
+     */
+    Ticket generateTicket(Vehicle vehicle, ParkingSpot spot, String entryGateId, Consumer<Ticket> beforePublish) {
+        String ticketId = ticketIdGenerator.nextTicketId();
         Ticket ticket = new Ticket(ticketId, vehicle, spot, entryGateId);
-        activeTickets.put(ticketId, ticket);
+        registerActiveTicket(ticket, beforePublish);
         return ticket;
     }
 
+    /**
+     * Re-registers an active ticket read back from a snapshot or journal
+     */
+    void restoreActiveTicket(Ticket ticket) {
+        registerActiveTicket(ticket, null);
+    }
+
+    /**
+     * Puts a completed ticket read back from a snapshot into the in-memory
+     * window; the running totals are restored separately
+     */
+    void restoreCompletedTicket(Ticket ticket) {
+        completedTickets.put(ticket.getTicketId(), ticket);
+        ticketIndex.add(ticket, false);
+        if (archive != null) {
+            completionOrder.offer(ticket.getTicketId());
+            archiveOldestCompletedTickets();
+        }
+    }
+
+    private void registerActiveTicket(Ticket ticket, Consumer<Ticket> beforePublish) {
+        Vehicle vehicle = ticket.getVehicle();
+        if (activeTicketsByPlate.putIfAbsent(vehicle.getLicensePlate(), ticket) != null) {
+            throw new IllegalStateException("Vehicle " + vehicle.getLicensePlate() + " is already parked");
+        }
+        if (beforePublish != null) {
+            try {
+                beforePublish.accept(ticket);
+            } catch (RuntimeException e) {
+                activeTicketsByPlate.remove(vehicle.getLicensePlate(), ticket);
+                throw e;
+            }
+        }
+        // Indexed before an exit can find it in activeTickets
+        ticketIndex.add(ticket, true);
+        activeTickets.put(ticket.getTicketId(), ticket);
+        activeCountByVehicleType.incrementAndGet(vehicle.getType().ordinal());
+        overdueIndex.add(ticket);
+        if (!ticket.isPaid()) {
+            unpaidIndex.add(ticket);
+        }
+    }
+
     /**
      * Processes payment for a ticket
      */
@@ -37,34 +142,154 @@ public class TicketManager {
             return false;
         }
 
-        double totalAmount = ticket.calculateParkingFee();
-        if (amountPaid >= totalAmount) {
-            ticket.markAsPaid();
+        synchronized (ticket) {
+            TariffEngine tariffEngine = currentTariff();
+            double totalAmount = ticket.calculateParkingFee(tariffEngine);
+            if (amountPaid < totalAmount) {
+                return false;
+            }
+            settlePayment(ticket, tariffEngine, totalAmount);
             return true;
         }
-        return false;
+    }
+
+    /**
+     * Marks a ticket paid again while replaying a journal. The rates it was
+     * priced with are not journaled, so its exit is priced with the rates in
+     * force then.
+     */
+    boolean restorePayment(String ticketId, double amountPaid) {
+        Ticket ticket = activeTickets.get(ticketId);
+        if (ticket == null) {
+            ticket = completedTickets.get(ticketId);
+        }
+        if (ticket == null) {
+            return false;
+        }
+        synchronized (ticket) {
+            settlePayment(ticket, null, amountPaid);
+        }
+        return true;
+    }
+
+    /**
+     * Marks the ticket paid; revenue is booked once a ticket is both completed
+     * and paid. Callers hold the ticket's lock.
+     */
+    private void settlePayment(Ticket ticket, TariffEngine tariffEngine, double amountPaid) {
+        boolean wasPaid = ticket.isPaid();
+        ticket.markAsPaid(tariffEngine, amountPaid);
+        unpaidIndex.remove(ticket);
+        if (!wasPaid) {
+            ticketIndex.markPaid(ticket);
+        }
+        if (!wasPaid && completedTickets.containsKey(ticket.getTicketId())) {
+            recordRevenue(ticket);
+        }
     }
 
     /**
      * Completes parking session and moves ticket to completed tickets
      */
     public Ticket completeParking(String ticketId, String exitGateId) {
+        return completeParking(ticketId, exitGateId, LocalDateTime.now());
+    }
+
+    /**
+     * Completes a parking session at a given exit time (used directly when
+     * replaying a journal)
+     */
+    Ticket completeParking(String ticketId, String exitGateId, LocalDateTime exitTime) {
+        return completeParking(ticketId, exitGateId, exitTime, null);
+    }
+
+    /**
+     * Completes a parking session; a non-null chargedAmount is taken as the
+     * fee instead of pricing the stay with today's rates (journal replay)
+     */
+    Ticket completeParking(String ticketId, String exitGateId, LocalDateTime exitTime, Double chargedAmount) {
+        return completeParking(ticketId, exitGateId, exitTime, chargedAmount, null);
+    }
+
+    /**
+     * Completes a parking session, handing the completed ticket to
+     * beforeRelease while its plate is still held. The lot journals the exit
+     * there, so a later park of the same plate always follows this exit in
+     * the journal.
+     */
+    Ticket completeParking(String ticketId, String exitGateId, LocalDateTime exitTime, Double chargedAmount,
+            Consumer<Ticket> beforeRelease) {
         Ticket ticket = activeTickets.remove(ticketId);
         if (ticket != null) {
-            ticket.completeParking(exitGateId);
-            completedTickets.put(ticketId, ticket);
+            activeCountByVehicleType.decrementAndGet(ticket.getVehicle().getType().ordinal());
+            overdueIndex.remove(ticket);
+            unpaidIndex.remove(ticket);
+            synchronized (ticket) {
+                if (chargedAmount != null) {
+                    ticket.completeParking(exitGateId, exitTime, chargedAmount.doubleValue());
+                } else {
+                    // A paid stay keeps the rates it was paid at, even if the
+                    // surge table changed since; time after payment is still owed
+                    TariffEngine paidTariff = ticket.getPaidTariff();
+                    ticket.completeParking(exitGateId, exitTime, paidTariff != null ? paidTariff : currentTariff());
+                }
+                completedTickets.put(ticketId, ticket);
+                ticketIndex.markCompleted(ticket);
+                if (ticket.isPaid()) {
+                    recordRevenue(ticket);
+                }
+            }
+            try {
+                if (beforeRelease != null) {
+                    beforeRelease.accept(ticket);
+                }
+            } finally {
+                activeTicketsByPlate.remove(ticket.getVehicle().getLicensePlate());
+            }
+            completedCount.incrementAndGet();
+            if (archive != null) {
+                completionOrder.offer(ticketId);
+                archiveOldestCompletedTickets();
+            }
         }
         return ticket;
     }
 
+    /**
+     * Moves the oldest completed tickets to the archive until the in-memory
+     * window is back within its bound
+     */
+    private void archiveOldestCompletedTickets() {
+        while (completedTickets.size() > recentWindowSize) {
+            String oldestTicketId = completionOrder.poll();
+            if (oldestTicketId == null) {
+                return;
+            }
+            Ticket oldest = completedTickets.get(oldestTicketId);
+            synchronized (oldest) {
+                // Written before removal so getTicket never misses it
+                archive.append(oldest);
+                completedTickets.remove(oldestTicketId);
+                ticketIndex.remove(oldest);
+            }
+        }
+    }
+
+    /**
+     * Adds a completed, paid ticket to the running revenue totals
+     */
+    private void recordRevenue(Ticket ticket) {
+        totalRevenue.add(ticket.getTotalAmount());
+        if (ticket.hasEVCharging()) {
+            evChargingRevenue.add(ticket.getParkingDurationHours() * 2.0);
+        }
+    }
+
     /**
      * Finds ticket by vehicle license plate
      */
     public Ticket findTicketByVehicle(String licensePlate) {
-        return activeTickets.values().stream()
-                .filter(ticket -> ticket.getVehicle().getLicensePlate().equals(licensePlate))
-                .findFirst()
-                .orElse(null);
+        return activeTicketsByPlate.get(licensePlate);
     }
 
     /**
@@ -75,29 +300,33 @@ public class TicketManager {
     }
 
     /**
-     * Gets all completed tickets
+     * Gets completed tickets still held in memory (all of them unless an
+     * archive is attached)
      */
     public Collection<Ticket> getCompletedTickets() {
         return new ArrayList<>(completedTickets.values());
     }
 
     /**
-     * Gets tickets by vehicle type
+     * Gets tickets by vehicle type (active and in-memory completed tickets)
      */
     public List<Ticket> getTicketsByVehicleType(VehicleType vehicleType) {
-        List<Ticket> result = new ArrayList<>();
-
-        // Add from active tickets
-        activeTickets.values().stream()
-                .filter(ticket -> ticket.getVehicle().getType() == vehicleType)
-                .forEach(result::add);
+        return findTickets(new TicketQuery().vehicleTypes(vehicleType));
+    }
 
-        // Add from completed tickets
-        completedTickets.values().stream()
-                .filter(ticket -> ticket.getVehicle().getType() == vehicleType)
-                .forEach(result::add);
+    /**
+     * Finds the active and in-memory completed tickets matching a query, in
+     * the order they were issued (or restored), using the secondary indexes
+     */
+    public List<Ticket> findTickets(TicketQuery query) {
+        return ticketIndex.find(query);
+    }
 
-        return result;
+    /**
+     * Counts the active and in-memory completed tickets matching a query
+     */
+    public int countTickets(TicketQuery query) {
+        return ticketIndex.count(query);
     }
 
     /**
@@ -106,19 +335,12 @@ public class TicketManager {
     public Map<String, Double> getRevenueStats() {
         Map<String, Double> stats = new HashMap<>();
 
-        double totalRevenue = completedTickets.values().stream()
-                .filter(Ticket::isPaid)
-                .mapToDouble(Ticket::getTotalAmount)
-                .sum();
-
-        double evChargingRevenue = completedTickets.values().stream()
-                .filter(ticket -> ticket.isPaid() && ticket.hasEVCharging())
-                .mapToDouble(ticket -> ticket.getParkingDurationHours() * 2.0)
-                .sum();
+        double total = totalRevenue.sum();
+        double evCharging = evChargingRevenue.sum();
 
-        stats.put("totalRevenue", totalRevenue);
-        stats.put("evChargingRevenue", evChargingRevenue);
-        stats.put("parkingRevenue", totalRevenue - evChargingRevenue);
+        stats.put("totalRevenue", total);
+        stats.put("evChargingRevenue", evCharging);
+        stats.put("parkingRevenue", total - evCharging);
 
         return stats;
     }
@@ -130,41 +352,88 @@ public class TicketManager {
         Map<VehicleType, Integer> stats = new EnumMap<>(VehicleType.class);
 
         for (VehicleType type : VehicleType.values()) {
-            stats.put(type, 0);
+            stats.put(type, activeCountByVehicleType.get(type.ordinal()));
         }
 
-        activeTickets.values().forEach(ticket -> {
-            VehicleType type = ticket.getVehicle().getType();
-            stats.put(type, stats.get(type) + 1);
-        });
-
         return stats;
     }
 
     /**
-     * Gets unpaid tickets (for enforcement)
+     * Gets unpaid tickets parked for at least the grace period (for enforcement)
      */
     public List<Ticket> getUnpaidTickets() {
-        return activeTickets.values().stream()
-                .filter(ticket -> !ticket.isPaid() && ticket.getParkingDurationHours() > 0)
-                .collect(ArrayList::new, (list, ticket) -> list.add(ticket), ArrayList::addAll);
+        return unpaidIndex.getExpired(currentEpochMillis());
     }
 
     /**
      * Gets overdue tickets (parked for more than 24 hours)
      */
     public List<Ticket> getOverdueTickets() {
-        return activeTickets.values().stream()
-                .filter(ticket -> ticket.getParkingDurationHours() > 24)
-                .collect(ArrayList::new, (list, ticket) -> list.add(ticket), ArrayList::addAll);
+        return overdueIndex.getExpired(currentEpochMillis());
+    }
+
+    /**
+     * Gets the tickets that became unpaid past the grace period since the
+     * previous call
+     */
+    public List<Ticket> pollNewlyUnpaidTickets() {
+        return unpaidIndex.pollNewlyExpired(currentEpochMillis());
+    }
+
+    /**
+     * Gets the tickets that became overdue since the previous call
+     */
+    public List<Ticket> pollNewlyOverdueTickets() {
+        return overdueIndex.pollNewlyExpired(currentEpochMillis());
+    }
+
+    /**
+     * Prices tickets from the given surge pricing's current rate table from
+     * now on (null restores the standard rates)
+     */
+    public void setPricing(SurgePricing pricing) {
+        this.pricing = pricing;
+    }
+
+    public SurgePricing getPricing() {
+        return pricing;
+    }
+
+    /**
+     * Rate table to price with; a plain volatile read
+     */
+    TariffEngine currentTariff() {
+        SurgePricing currentPricing = pricing;
+        return currentPricing != null ? currentPricing.getCurrentTariff() : TariffEngine.STANDARD;
+    }
+
+    private static long currentEpochMillis() {
+        return TariffEngine.currentEpochMillis();
     }
 
     /**
-     * Generates a unique ticket ID
+     * Gets the number the next ticket ID generated today will carry
      */
-    private String generateTicketId() {
-        String datePrefix = LocalDateTime.now().format(formatter);
-        return String.format("TKT-%s-%04d", datePrefix, ticketCounter++);
+    int getNextTicketNumber() {
+        return ticketIdGenerator.getNextSequence();
+    }
+
+    /**
+     * Moves today's ticket sequence forward so restored IDs are never reissued
+     */
+    void advanceTicketNumber(int nextTicketNumber) {
+        ticketIdGenerator.advanceSequence(nextTicketNumber);
+    }
+
+    /**
+     * Restores the running totals recorded in a snapshot
+     */
+    void restoreCounters(long completedTicketCount, double totalRevenueAmount, double evChargingRevenueAmount) {
+        completedCount.set(completedTicketCount);
+        totalRevenue.reset();
+        totalRevenue.add(totalRevenueAmount);
+        evChargingRevenue.reset();
+        evChargingRevenue.add(evChargingRevenueAmount);
     }
 
     // Getters
@@ -173,6 +442,9 @@ public class TicketManager {
         if (ticket == null) {
             ticket = completedTickets.get(ticketId);
         }
+        if (ticket == null && archive != null) {
+            ticket = archive.find(ticketId);
+        }
         return ticket;
     }
 
@@ -181,16 +453,20 @@ public class TicketManager {
     }
 
     public int getCompletedTicketCount() {
-        return completedTickets.size();
+        return (int) completedCount.get();
     }
 
     public int getTotalTicketCount() {
-        return activeTickets.size() + completedTickets.size();
+        return getActiveTicketCount() + getCompletedTicketCount();
+    }
+
+    public TicketArchive getArchive() {
+        return archive;
     }
 
     @Override
     public String toString() {
         return String.format("TicketManager: %d active, %d completed tickets",
-                activeTickets.size(), completedTickets.size());
+                getActiveTicketCount(), getCompletedTicketCount());
     }
 }
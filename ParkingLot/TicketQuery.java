@@ -0,0 +1,103 @@
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Filter for TicketManager.findTickets and countTickets. A criterion left
+ * unset matches every ticket, several values for one criterion match any of
+ * them, and criteria are combined with AND.
+ */
+public class TicketQuery {
+    private Set<VehicleType> vehicleTypes;
+    private Set<SpotType> spotTypes;
+    private Set<String> entryGateIds;
+    private Set<String> exitGateIds;
+    private LocalDate enteredFrom;
+    private LocalDate enteredTo;
+    private Boolean paid;
+    private Boolean active;
+
+    public TicketQuery vehicleTypes(VehicleType... vehicleTypes) {
+        this.vehicleTypes = EnumSet.noneOf(VehicleType.class);
+        this.vehicleTypes.addAll(Arrays.asList(vehicleTypes));
+        return this;
+    }
+
+    public TicketQuery spotTypes(SpotType... spotTypes) {
+        this.spotTypes = EnumSet.noneOf(SpotType.class);
+        this.spotTypes.addAll(Arrays.asList(spotTypes));
+        return this;
+    }
+
+    public TicketQuery entryGates(String... gateIds) {
+        this.entryGateIds = new HashSet<>(Arrays.asList(gateIds));
+        return this;
+    }
+
+    public TicketQuery exitGates(String... gateIds) {
+        this.exitGateIds = new HashSet<>(Arrays.asList(gateIds));
+        return this;
+    }
+
+    /**
+     * Matches tickets that entered on any day from one date to another,
+     * both inclusive
+     */
+    public TicketQuery enteredBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Date range ends before it starts");
+        }
+        this.enteredFrom = from;
+        this.enteredTo = to;
+        return this;
+    }
+
+    public TicketQuery enteredOn(LocalDate day) {
+        return enteredBetween(day, day);
+    }
+
+    public TicketQuery paid(boolean paid) {
+        this.paid = paid;
+        return this;
+    }
+
+    /**
+     * Matches vehicles still parked (true) or completed sessions (false)
+     */
+    public TicketQuery active(boolean active) {
+        this.active = active;
+        return this;
+    }
+
+    // Getters; null means the criterion is not set
+    Set<VehicleType> getVehicleTypes() {
+        return vehicleTypes;
+    }
+
+    Set<SpotType> getSpotTypes() {
+        return spotTypes;
+    }
+
+    Set<String> getEntryGateIds() {
+        return entryGateIds;
+    }
+
+    Set<String> getExitGateIds() {
+        return exitGateIds;
+    }
+
+    LocalDate getEnteredFrom() {
+        return enteredFrom;
+    }
+
+    LocalDate getEnteredTo() {
+        return enteredTo;
+    }
+
+    Boolean getPaid() {
+        return paid;
+    }
+
+    Boolean getActive() {
+        return active;
+    }
+}
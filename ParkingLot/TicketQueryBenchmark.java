@@ -0,0 +1,103 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Benchmark comparing report queries over a large ticket history answered by
+ * the secondary indexes with the same filters applied by scanning every
+ * ticket
+ */
+public class TicketQueryBenchmark {
+    private static final int TICKETS = 2_000_000;
+    private static final int DAYS = 365;
+    private static final String[] GATE_IDS = { "ENTRY-1", "ENTRY-2", "EXIT-1", "EXIT-2", "BOTH-1", "BOTH-2" };
+    private static final int ROUNDS = 20;
+
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        System.out.println("=== TICKET QUERY BENCHMARK ===");
+        System.out.println(String.format("%,d tickets over %d days, %d gates%n", TICKETS, DAYS, GATE_IDS.length));
+
+        LocalDate firstDay = LocalDate.now().minusDays(DAYS);
+        TicketManager ticketManager = createHistory(firstDay);
+        List<Ticket> history = new ArrayList<>(ticketManager.getCompletedTickets());
+        history.addAll(ticketManager.getActiveTickets());
+
+        LocalDate week = firstDay.plusDays(200);
+        LocalDate weekEnd = week.plusDays(6);
+        report("Cars (getTicketsByVehicleType)", new TicketQuery().vehicleTypes(VehicleType.CAR),
+                ticket -> ticket.getVehicle().getType() == VehicleType.CAR, ticketManager, history);
+        report("Unpaid, gate ENTRY-1", new TicketQuery().paid(false).entryGates("ENTRY-1"),
+                ticket -> !ticket.isPaid() && "ENTRY-1".equals(ticket.getEntryGateId()), ticketManager, history);
+        report("One day, electric spots", new TicketQuery().enteredOn(week).spotTypes(SpotType.ELECTRIC),
+                ticket -> ticket.getEntryTime().toLocalDate().equals(week)
+                        && ticket.getAssignedSpot().getSpotType() == SpotType.ELECTRIC,
+                ticketManager, history);
+        report("One week, vans, exit EXIT-2, paid", new TicketQuery().enteredBetween(week, weekEnd)
+                .vehicleTypes(VehicleType.VAN).exitGates("EXIT-2").paid(true),
+                ticket -> !ticket.getEntryTime().toLocalDate().isBefore(week)
+                        && !ticket.getEntryTime().toLocalDate().isAfter(weekEnd)
+                        && ticket.getVehicle().getType() == VehicleType.VAN
+                        && "EXIT-2".equals(ticket.getExitGateId()) && ticket.isPaid(),
+                ticketManager, history);
+    }
+
+    private static void report(String name, TicketQuery query, Predicate<Ticket> filter,
+            TicketManager ticketManager, List<Ticket> history) {
+        int indexed = ticketManager.countTickets(query);
+        int scanned = (int) history.stream().filter(filter).count();
+        if (indexed != scanned) {
+            throw new IllegalStateException(name + ": index found " + indexed + " but scan found " + scanned);
+        }
+        double scanMillis = measure(() -> sink = (int) history.stream().filter(filter).count());
+        double countMillis = measure(() -> sink = ticketManager.countTickets(query));
+        double findMillis = measure(() -> sink = ticketManager.findTickets(query).size());
+        System.out.println(String.format("%-36s %,9d matches   scan %8.2f ms   count %7.2f ms   find %7.2f ms",
+                name, indexed, scanMillis, countMillis, findMillis));
+    }
+
+    /**
+     * Returns the mean time in milliseconds for one run of the task, after
+     * an equal number of warm-up runs
+     */
+    private static double measure(Runnable task) {
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / ROUNDS;
+    }
+
+    private static TicketManager createHistory(LocalDate firstDay) {
+        Random random = new Random(42);
+        TicketManager ticketManager = new TicketManager();
+        VehicleType[] vehicleTypes = VehicleType.values();
+        ParkingSpot[] spots = new ParkingSpot[500];
+        for (int i = 0; i < spots.length; i++) {
+            spots[i] = new ParkingSpot(String.format("S%03d", i), SpotType.values()[i % SpotType.values().length], 0);
+        }
+        LocalDateTime start = firstDay.atStartOfDay();
+        for (int i = 0; i < TICKETS; i++) {
+            // Tickets are issued in entry order
+            LocalDateTime entryTime = start.plusSeconds((long) i * DAYS * 86_400L / TICKETS);
+            Vehicle vehicle = new Vehicle(String.format("HIST-%07d", i), vehicleTypes[random.nextInt(vehicleTypes.length)],
+                    "White", "History");
+            boolean completed = i < TICKETS - 1_000;
+            Ticket ticket = new Ticket(String.format("TKT-HIST-%07d", i), vehicle, spots[random.nextInt(spots.length)],
+                    GATE_IDS[random.nextInt(GATE_IDS.length)], entryTime,
+                    completed ? entryTime.plusMinutes(30 + random.nextInt(300)) : null,
+                    completed ? GATE_IDS[random.nextInt(GATE_IDS.length)] : null, 10.0, random.nextInt(10) != 0);
+            if (completed) {
+                ticketManager.restoreCompletedTicket(ticket);
+            } else {
+                ticketManager.restoreActiveTicket(ticket);
+            }
+        }
+        return ticketManager;
+    }
+}
@@ -0,0 +1,113 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Generates arrival and departure streams for a site. Arrivals follow a
+ * Poisson process whose rate varies over the day with a DemandProfile
+ * (sampled by thinning); each arrival stays for an exponentially distributed
+ * time, optionally pays at a pay station shortly before leaving, and exits
+ * through a random exit gate. Events come back in time order.
+ */
+public class TrafficGenerator {
+    private static final double MIN_STAY_MINUTES = 5.0;
+    private static final double PAY_STATION_LEAD_MINUTES = 10.0;
+
+    private final List<String> entryGateIds;
+    private final List<String> exitGateIds;
+    private final Random random;
+    private VehicleType[] vehicleMix;
+    private double meanStayMinutes;
+    private double prepaidShare;
+    private int plateCounter;
+
+    public TrafficGenerator(List<String> entryGateIds, List<String> exitGateIds, long seed) {
+        if (entryGateIds.isEmpty() || exitGateIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one entry and one exit gate are needed");
+        }
+        this.entryGateIds = new ArrayList<>(entryGateIds);
+        this.exitGateIds = new ArrayList<>(exitGateIds);
+        this.random = new Random(seed);
+        this.vehicleMix = new VehicleType[] { VehicleType.CAR, VehicleType.CAR, VehicleType.CAR,
+                VehicleType.CAR, VehicleType.CAR, VehicleType.CAR, VehicleType.MOTORCYCLE,
+                VehicleType.MOTORCYCLE, VehicleType.VAN, VehicleType.TRUCK };
+        this.meanStayMinutes = 120.0;
+        this.prepaidShare = 0.5;
+    }
+
+    /**
+     * Generates the events of every arrival in [start, start + length).
+     * Departures falling after the window are left out, so those vehicles
+     * stay parked.
+     */
+    public List<GateEvent> generate(DemandProfile profile, double baseArrivalsPerHour, LocalDateTime start,
+            Duration length) {
+        if (baseArrivalsPerHour <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive");
+        }
+        long startMillis = TariffEngine.toEpochMillis(start);
+        long endMillis = startMillis + length.toMillis();
+        double startHour = start.toLocalTime().toSecondOfDay() / 3600.0;
+        double peakPerMilli = baseArrivalsPerHour * profile.getPeakMultiplier() / 3_600_000.0;
+
+        List<GateEvent> events = new ArrayList<>();
+        double time = startMillis;
+        while (true) {
+            time += -Math.log(1.0 - random.nextDouble()) / peakPerMilli;
+            if (time >= endMillis) {
+                break;
+            }
+            double hourOfDay = (startHour + (time - startMillis) / 3_600_000.0) % 24.0;
+            double acceptance = profile.getRateMultiplier(hourOfDay) / profile.getPeakMultiplier();
+            if (random.nextDouble() < acceptance) {
+                addVisit(events, (long) time, endMillis);
+            }
+        }
+        events.sort(Comparator.comparingLong(GateEvent::getTimeMillis));
+        return events;
+    }
+
+    private void addVisit(List<GateEvent> events, long arrivalMillis, long endMillis) {
+        String licensePlate = String.format("SIM-%07d", plateCounter++);
+        VehicleType vehicleType = vehicleMix[random.nextInt(vehicleMix.length)];
+        events.add(new GateEvent(arrivalMillis, GateOperation.PARK, pick(entryGateIds), licensePlate, vehicleType));
+
+        double stayMinutes = MIN_STAY_MINUTES - Math.log(1.0 - random.nextDouble()) * meanStayMinutes;
+        long departureMillis = arrivalMillis + (long) (stayMinutes * 60_000);
+        if (departureMillis >= endMillis) {
+            return;
+        }
+        String exitGateId = pick(exitGateIds);
+        if (random.nextDouble() < prepaidShare) {
+            long paymentMillis = departureMillis - (long) (random.nextDouble() * PAY_STATION_LEAD_MINUTES * 60_000);
+            events.add(new GateEvent(Math.max(arrivalMillis + 1, paymentMillis), GateOperation.PAYMENT, exitGateId,
+                    licensePlate, vehicleType));
+        }
+        events.add(new GateEvent(departureMillis, GateOperation.REMOVE, exitGateId, licensePlate, vehicleType));
+    }
+
+    private String pick(List<String> gateIds) {
+        return gateIds.get(random.nextInt(gateIds.size()));
+    }
+
+    /**
+     * Sets the vehicle types drawn for arrivals; repeat a type to weight it
+     */
+    public void setVehicleMix(VehicleType... vehicleMix) {
+        if (vehicleMix.length == 0) {
+            throw new IllegalArgumentException("Vehicle mix must not be empty");
+        }
+        this.vehicleMix = vehicleMix.clone();
+    }
+
+    public void setMeanStayMinutes(double meanStayMinutes) {
+        this.meanStayMinutes = meanStayMinutes;
+    }
+
+    /**
+     * Sets the share of visits that pay at a pay station before driving out
+     */
+    public void setPrepaidShare(double prepaidShare) {
+        this.prepaidShare = prepaidShare;
+    }
+}
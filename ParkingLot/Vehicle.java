@@ -22,7 +22,15 @@ public class Vehicle {
      * Determines if vehicle can fit in the specified spot type
      */
     public boolean canFitInSpot(SpotType spotType) {
-        return config.getCompatibleSpotTypes().contains(spotType);
+        return config.isCompatible(spotType);
+    }
+
+    /**
+     * Gets the compatible spot types in order of preference. The array is
+     * shared by every vehicle of this type and must not be modified.
+     */
+    SpotType[] getPreferredSpotTypes() {
+        return config.getPreferredSpotTypes();
     }
 
     // Getters
@@ -65,19 +73,66 @@ public class Vehicle {
 }
 
 /**
- * Configuration class that defines vehicle behavior
+ * Configuration class that defines vehicle behavior. Immutable: compatibility
+ * is a bitmask over SpotType ordinals and the preference order a precomputed
+ * array, so checking or walking them allocates nothing.
  */
 class VehicleConfiguration {
+    private final int compatibleMask;
+    private final SpotType[] preferredSpotTypes;
     private final Set<SpotType> compatibleSpotTypes;
     private final String displayName;
 
-    public VehicleConfiguration(Set<SpotType> compatibleSpotTypes, String displayName) {
-        this.compatibleSpotTypes = new HashSet<>(compatibleSpotTypes);
+    /**
+     * Creates a configuration whose preference order is the given order,
+     * restricted to the compatible spot types and followed by any compatible
+     * type it leaves out
+     */
+    public VehicleConfiguration(Set<SpotType> compatibleSpotTypes, List<SpotType> preferenceOrder,
+            String displayName) {
+        int mask = 0;
+        for (SpotType spotType : compatibleSpotTypes) {
+            mask |= 1 << spotType.ordinal();
+        }
+        Set<SpotType> ordered = new LinkedHashSet<>();
+        for (SpotType spotType : preferenceOrder) {
+            if ((mask & (1 << spotType.ordinal())) != 0) {
+                ordered.add(spotType);
+            }
+        }
+        for (SpotType spotType : SpotType.values()) {
+            if ((mask & (1 << spotType.ordinal())) != 0) {
+                ordered.add(spotType);
+            }
+        }
+        this.compatibleMask = mask;
+        this.preferredSpotTypes = ordered.toArray(new SpotType[0]);
+        this.compatibleSpotTypes = Collections.unmodifiableSet(
+                compatibleSpotTypes.isEmpty() ? EnumSet.noneOf(SpotType.class) : EnumSet.copyOf(compatibleSpotTypes));
         this.displayName = displayName;
     }
 
+    public VehicleConfiguration(Set<SpotType> compatibleSpotTypes, String displayName) {
+        this(compatibleSpotTypes, Collections.emptyList(), displayName);
+    }
+
+    public boolean isCompatible(SpotType spotType) {
+        return (compatibleMask & (1 << spotType.ordinal())) != 0;
+    }
+
+    /**
+     * Gets the compatible spot types as an unmodifiable set
+     */
     public Set<SpotType> getCompatibleSpotTypes() {
-        return new HashSet<>(compatibleSpotTypes);
+        return compatibleSpotTypes;
+    }
+
+    /**
+     * Gets the compatible spot types in order of preference; shared, must not
+     * be modified
+     */
+    SpotType[] getPreferredSpotTypes() {
+        return preferredSpotTypes;
     }
 
     public String getDisplayName() {
@@ -89,35 +144,40 @@ class VehicleConfiguration {
  * Factory that creates configurations for different vehicle types
  */
 class VehicleConfigurationFactory {
-    private static final Map<VehicleType, VehicleConfiguration> configurations = new HashMap<>();
+    private static final Map<VehicleType, VehicleConfiguration> configurations = new EnumMap<>(VehicleType.class);
 
     static {
         initializeConfigurations();
     }
 
     private static void initializeConfigurations() {
-        // Motorcycle: can fit in any spot
+        // Motorcycle: can fit in any spot, smallest first
         configurations.put(VehicleType.MOTORCYCLE,
                 new VehicleConfiguration(
                         EnumSet.allOf(SpotType.class),
+                        Arrays.asList(SpotType.COMPACT, SpotType.REGULAR, SpotType.ELECTRIC,
+                                SpotType.HANDICAPPED, SpotType.LARGE),
                         "Motorcycle"));
 
         // Car: regular, large, handicapped, electric - NOT compact
         configurations.put(VehicleType.CAR,
                 new VehicleConfiguration(
                         EnumSet.of(SpotType.REGULAR, SpotType.LARGE, SpotType.HANDICAPPED, SpotType.ELECTRIC),
+                        Arrays.asList(SpotType.REGULAR, SpotType.ELECTRIC, SpotType.HANDICAPPED, SpotType.LARGE),
                         "Car"));
 
         // Van: large and regular spots
         configurations.put(VehicleType.VAN,
                 new VehicleConfiguration(
                         EnumSet.of(SpotType.LARGE, SpotType.REGULAR),
+                        Arrays.asList(SpotType.LARGE, SpotType.REGULAR),
                         "Van"));
 
         // Truck: only large spots
         configurations.put(VehicleType.TRUCK,
                 new VehicleConfiguration(
                         EnumSet.of(SpotType.LARGE),
+                        Arrays.asList(SpotType.LARGE),
                         "Truck"));
     }
 
@@ -131,4 +191,12 @@ class VehicleConfigurationFactory {
     public static void addVehicleType(VehicleType type, Set<SpotType> compatibleSpots, String displayName) {
         configurations.put(type, new VehicleConfiguration(compatibleSpots, displayName));
     }
+
+    /**
+     * Add new vehicle types with an explicit spot preference order
+     */
+    public static void addVehicleType(VehicleType type, Set<SpotType> compatibleSpots,
+            List<SpotType> preferenceOrder, String displayName) {
+        configurations.put(type, new VehicleConfiguration(compatibleSpots, preferenceOrder, displayName));
+    }
 }
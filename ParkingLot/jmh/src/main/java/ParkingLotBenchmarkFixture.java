@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import parkinglot.jmh.BenchmarkLot;
+
+/**
+ * Benchmark fixture that builds a ParkingLot and exposes its hot paths to the
+ * JMH benchmarks in parkinglot.jmh
+ */
+public class ParkingLotBenchmarkFixture implements BenchmarkLot {
+    private static final int VEHICLES_PER_GATE = 1024; // Power of two, used as a ring
+    private static final SpotType[] LAYOUT = { SpotType.COMPACT, SpotType.REGULAR, SpotType.REGULAR,
+            SpotType.REGULAR, SpotType.REGULAR, SpotType.LARGE, SpotType.LARGE, SpotType.ELECTRIC };
+    private static final VehicleType[] MIX = { VehicleType.CAR, VehicleType.CAR, VehicleType.CAR,
+            VehicleType.MOTORCYCLE, VehicleType.VAN, VehicleType.TRUCK };
+
+    private ParkingLot parkingLot;
+    private String[] gateIds;
+    private Vehicle[][] gateVehicles;
+    private Vehicle[] probeVehicles;
+    private String[] parkedPlates;
+
+    @Override
+    public void setUp(int floors, int spotsPerFloor, double occupancy, int gates, boolean metrics) {
+        parkingLot = new ParkingLot("PL-JMH", "Benchmark Deck", "1 Harness Rd", floors);
+        gateIds = new String[gates];
+        gateVehicles = new Vehicle[gates][VEHICLES_PER_GATE];
+        for (int gate = 0; gate < gates; gate++) {
+            gateIds[gate] = String.format("GATE-%02d", gate);
+            parkingLot.addEntryExitGate(new EntryExit(gateIds[gate], EntryExitType.BOTH));
+            for (int i = 0; i < VEHICLES_PER_GATE; i++) {
+                gateVehicles[gate][i] = new Vehicle(String.format("G%02d-%04d", gate, i), MIX[i % MIX.length],
+                        "White", "Gate");
+            }
+        }
+        for (int floorNum = 0; floorNum < floors; floorNum++) {
+            for (int i = 0; i < spotsPerFloor; i++) {
+                parkingLot.addParkingSpot(floorNum, new ParkingSpot(String.format("F%d-%05d", floorNum, i),
+                        LAYOUT[i % LAYOUT.length], floorNum));
+            }
+        }
+
+        // Fill with cars and motorcycles, which fit most spot types
+        List<Vehicle> residents = new ArrayList<>();
+        int target = (int) (floors * spotsPerFloor * occupancy);
+        for (int i = 0; i < target; i++) {
+            residents.add(new Vehicle(String.format("RES-%07d", i),
+                    i % 4 == 0 ? VehicleType.MOTORCYCLE : VehicleType.CAR, "Grey", "Resident"));
+        }
+        List<String> plates = new ArrayList<>(target);
+        for (ParkingResult result : parkingLot.parkVehicles(residents, gateIds[0])) {
+            if (result.isSuccess()) {
+                plates.add(result.getVehicle().getLicensePlate());
+            }
+        }
+        parkedPlates = plates.toArray(new String[0]);
+        if (metrics) {
+            parkingLot.setMetrics(new ParkingMetrics());
+        }
+
+        probeVehicles = new Vehicle[MIX.length];
+        for (int i = 0; i < MIX.length; i++) {
+            probeVehicles[i] = new Vehicle("PROBE-" + i, MIX[i], "Black", "Probe");
+        }
+    }
+
+    @Override
+    public int getGateCount() {
+        return gateIds.length;
+    }
+
+    @Override
+    public int getParkedCount() {
+        return parkedPlates.length;
+    }
+
+    @Override
+    public double parkAndRemove(int gate, int sequence) {
+        Vehicle vehicle = gateVehicles[gate][sequence & (VEHICLES_PER_GATE - 1)];
+        try {
+            parkingLot.parkVehicle(vehicle, gateIds[gate]);
+        } catch (IllegalStateException e) {
+            return 0.0; // Lot full for this vehicle type
+        }
+        return parkingLot.removeVehicle(vehicle.getLicensePlate(), gateIds[gate]);
+    }
+
+    @Override
+    public Object findAvailableSpot(int floor, int sequence) {
+        return parkingLot.getFloor(floor).findAvailableSpot(probeVehicles[sequence % probeVehicles.length]);
+    }
+
+    @Override
+    public Object findTicketByVehicle(int sequence) {
+        if (parkedPlates.length == 0) {
+            return null;
+        }
+        return parkingLot.getTicketManager().findTicketByVehicle(parkedPlates[sequence % parkedPlates.length]);
+    }
+
+    @Override
+    public Object getStatus() {
+        return parkingLot.getStatus();
+    }
+}
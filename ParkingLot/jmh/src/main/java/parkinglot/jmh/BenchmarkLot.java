@@ -0,0 +1,42 @@
+package parkinglot.jmh;
+
+/**
+ * Operations the benchmarks drive against a parking lot. The lot classes live
+ * in the default package, which a named package cannot import, so they are
+ * reached through this interface, implemented by ParkingLotBenchmarkFixture.
+ */
+public interface BenchmarkLot {
+    String FIXTURE_CLASS = "ParkingLotBenchmarkFixture";
+
+    /**
+     * Builds the lot and parks vehicles until the requested occupancy is
+     * reached; with metrics on, gate operations are timed into ParkingMetrics
+     */
+    void setUp(int floors, int spotsPerFloor, double occupancy, int gates, boolean metrics);
+
+    int getGateCount();
+
+    int getParkedCount();
+
+    /**
+     * Parks a vehicle through a gate and removes it again; returns the fee
+     */
+    double parkAndRemove(int gate, int sequence);
+
+    Object findAvailableSpot(int floor, int sequence);
+
+    Object findTicketByVehicle(int sequence);
+
+    Object getStatus();
+
+    /**
+     * Loads the fixture implementation from the default package
+     */
+    static BenchmarkLot create() {
+        try {
+            return (BenchmarkLot) Class.forName(FIXTURE_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load " + FIXTURE_CLASS, e);
+        }
+    }
+}
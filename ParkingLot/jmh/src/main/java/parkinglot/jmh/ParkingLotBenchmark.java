@@ -0,0 +1,83 @@
+package parkinglot.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput and sampled latency (including p99) of the ParkingLot hot paths.
+ * Lot size and occupancy are JMH parameters; the number of gate threads is
+ * JMH's thread count (-t), and each thread drives its own gate.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParkingLotBenchmark {
+    private static final int GATES = 64;
+
+    @Param({ "4" })
+    public int floors;
+
+    @Param({ "500", "5000" })
+    public int spotsPerFloor;
+
+    @Param({ "0.5", "0.95" })
+    public double occupancy;
+
+    /**
+     * Run with -p metrics=false,true to measure the cost of ParkingMetrics
+     */
+    @Param({ "false" })
+    public boolean metrics;
+
+    private BenchmarkLot lot;
+    private final AtomicInteger nextGate = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lot = BenchmarkLot.create();
+        lot.setUp(floors, spotsPerFloor, occupancy, GATES, metrics);
+    }
+
+    /**
+     * Per-thread state: the gate this thread drives and its operation counter
+     */
+    @State(Scope.Thread)
+    public static class GateThread {
+        int gate;
+        int sequence;
+
+        @Setup(Level.Trial)
+        public void assignGate(ParkingLotBenchmark benchmark) {
+            gate = benchmark.nextGate.getAndIncrement() % GATES;
+        }
+    }
+
+    /**
+     * One vehicle through the gate: parkVehicle followed by removeVehicle
+     */
+    @Benchmark
+    public double parkAndRemove(GateThread thread) {
+        return lot.parkAndRemove(thread.gate, thread.sequence++);
+    }
+
+    @Benchmark
+    public Object findAvailableSpot(GateThread thread) {
+        int sequence = thread.sequence++;
+        return lot.findAvailableSpot(sequence % floors, sequence);
+    }
+
+    @Benchmark
+    public Object findTicketByVehicle(GateThread thread) {
+        return lot.findTicketByVehicle(thread.sequence++);
+    }
+
+    @Benchmark
+    public Object getStatus() {
+        return lot.getStatus();
+    }
+}